@@ -0,0 +1,94 @@
+package org.exam.cache;
+
+import org.exam.dto.response.ExamResponse;
+import org.exam.event.ExamAvailabilityChangedEvent;
+import org.exam.repository.ExamRepository;
+import org.exam.service.ExamResponseMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * In-memory catalog of active exams, indexed by end time, for the student dashboard.
+ *
+ * The catalog is an immutable map of end time to pre-built responses, loaded with
+ * one query and replaced as a whole whenever an exam is created, activated or
+ * deactivated. Exams that have ended simply fall outside the lookups, so the
+ * dashboard never needs SQL between changes. The shared responses must not be
+ * modified by callers.
+ */
+@Component
+public class ActiveExamCatalog {
+
+    private static final Comparator<ExamResponse> BY_START_TIME =
+            Comparator.comparing(ExamResponse::getStartTime, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private ExamResponseMapper examResponseMapper;
+
+    private volatile NavigableMap<LocalDateTime, List<ExamResponse>> examsByEndTime;
+
+    /**
+     * @return the active exams that have not ended at {@code now}, upcoming or in
+     * progress, by start time
+     */
+    public List<ExamResponse> getUpcoming(LocalDateTime now) {
+        List<ExamResponse> exams = new ArrayList<>();
+        for (List<ExamResponse> ending : catalog().tailMap(now, false).values()) {
+            exams.addAll(ending);
+        }
+        exams.sort(BY_START_TIME);
+        return exams;
+    }
+
+    /**
+     * @return whether an exam is active and has started but not ended at {@code now}
+     */
+    public boolean isRunning(Long examId, LocalDateTime now) {
+        for (List<ExamResponse> ending : catalog().tailMap(now, false).values()) {
+            for (ExamResponse exam : ending) {
+                if (exam.getId().equals(examId)) {
+                    return exam.getStartTime() == null || !now.isBefore(exam.getStartTime());
+                }
+            }
+        }
+        return false;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamAvailabilityChanged(ExamAvailabilityChangedEvent event) {
+        reload();
+    }
+
+    private NavigableMap<LocalDateTime, List<ExamResponse>> catalog() {
+        NavigableMap<LocalDateTime, List<ExamResponse>> catalog = examsByEndTime;
+        return catalog != null ? catalog : reload();
+    }
+
+    /**
+     * Serialized, so the catalog installed last was also read from the database last
+     */
+    private synchronized NavigableMap<LocalDateTime, List<ExamResponse>> reload() {
+        TreeMap<LocalDateTime, List<ExamResponse>> catalog = new TreeMap<>();
+        for (ExamResponse exam : examResponseMapper.toResponses(
+                examRepository.findByIsActiveTrueAndEndTimeAfterOrderByStartTimeAsc(LocalDateTime.now()))) {
+            catalog.computeIfAbsent(exam.getEndTime(), endTime -> new ArrayList<>()).add(exam);
+        }
+        catalog.replaceAll((endTime, exams) -> List.copyOf(exams));
+
+        NavigableMap<LocalDateTime, List<ExamResponse>> installed = Collections.unmodifiableNavigableMap(catalog);
+        examsByEndTime = installed;
+        return installed;
+    }
+}
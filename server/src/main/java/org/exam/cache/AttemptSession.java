@@ -0,0 +1,73 @@
+package org.exam.cache;
+
+import org.exam.model.Section;
+
+/**
+ * Compact in-memory state of a running exam attempt, kept by {@link AttemptSessionRegistry}.
+ */
+public final class AttemptSession {
+
+    private final long attemptId;
+    private final long studentId;
+    private final long examId;
+    private final long deadlineEpochMillis;
+    private volatile boolean completed;
+    private volatile Section.SectionType currentSection;
+
+    // Time of the last heartbeat from the student's client, 0 if none yet
+    private volatile long lastSeenEpochMillis;
+
+    public AttemptSession(long attemptId, long studentId, long examId, long deadlineEpochMillis,
+                          boolean completed, Section.SectionType currentSection) {
+        this.attemptId = attemptId;
+        this.studentId = studentId;
+        this.examId = examId;
+        this.deadlineEpochMillis = deadlineEpochMillis;
+        this.completed = completed;
+        this.currentSection = currentSection;
+    }
+
+    public long getAttemptId() {
+        return attemptId;
+    }
+
+    public long getStudentId() {
+        return studentId;
+    }
+
+    public long getExamId() {
+        return examId;
+    }
+
+    public long getDeadlineEpochMillis() {
+        return deadlineEpochMillis;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public boolean isExpired(long nowEpochMillis) {
+        return nowEpochMillis > deadlineEpochMillis;
+    }
+
+    public Section.SectionType getCurrentSection() {
+        return currentSection;
+    }
+
+    public long getLastSeenEpochMillis() {
+        return lastSeenEpochMillis;
+    }
+
+    public void touch(long nowEpochMillis) {
+        this.lastSeenEpochMillis = nowEpochMillis;
+    }
+
+    void markCompleted() {
+        this.completed = true;
+    }
+
+    void setCurrentSection(Section.SectionType currentSection) {
+        this.currentSection = currentSection;
+    }
+}
@@ -0,0 +1,196 @@
+package org.exam.cache;
+
+import org.exam.exception.ResourceNotFoundException;
+import org.exam.model.Section;
+import org.exam.repository.ExamAttemptRepository;
+import org.exam.repository.projection.AttemptSessionView;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of running exam attempts, so the ownership, deadline and completion
+ * checks of the student endpoints run without SQL.
+ *
+ * Sessions are registered when an exam is started, and the running attempts are
+ * loaded once at startup. The database stays the source of truth: an attempt
+ * missing from the registry (once purged) is loaded with a single projection query.
+ * Sessions are also indexed by exam, for the per-exam views of admins.
+ */
+@Component
+public class AttemptSessionRegistry {
+
+    @Autowired
+    private ExamAttemptRepository examAttemptRepository;
+
+    @Value("${exam.sessions.retention-minutes:60}")
+    private long retentionMinutes;
+
+    private final Map<Long, AttemptSession> sessions = new ConcurrentHashMap<>();
+
+    // The same sessions by exam, then by attempt
+    private final Map<Long, Map<Long, AttemptSession>> sessionsByExam = new ConcurrentHashMap<>();
+
+    /**
+     * Get the session of an attempt, loading it from the database if needed
+     *
+     * @param attemptId the ID of the exam attempt
+     * @return the attempt session
+     * @throws ResourceNotFoundException if the attempt does not exist
+     */
+    public AttemptSession get(Long attemptId) {
+        AttemptSession session = sessions.computeIfAbsent(attemptId, id -> examAttemptRepository
+                .findSessionView(id)
+                .map(this::toSession)
+                .map(this::index)
+                .orElse(null));
+
+        if (session == null) {
+            throw new ResourceNotFoundException("Exam attempt not found");
+        }
+        return session;
+    }
+
+    /**
+     * @return the session of an attempt if it is held in memory, without loading it
+     */
+    public AttemptSession getIfPresent(Long attemptId) {
+        return sessions.get(attemptId);
+    }
+
+    /**
+     * Get the session of an attempt and verify it belongs to the given student
+     *
+     * @throws ResourceNotFoundException if the attempt does not exist
+     * @throws IllegalStateException if the attempt belongs to another student
+     */
+    public AttemptSession requireOwned(Long attemptId, Long studentId) {
+        AttemptSession session = get(attemptId);
+        if (session.getStudentId() != studentId) {
+            throw new IllegalStateException("You do not have access to this exam attempt");
+        }
+        return session;
+    }
+
+    /**
+     * Register a newly started attempt, once the surrounding transaction commits
+     */
+    public void register(AttemptSession session) {
+        register(session, () -> { });
+    }
+
+    /**
+     * Register a newly started attempt and then run {@code onRegistered}, both once the
+     * surrounding transaction commits, so nothing is left behind if it rolls back
+     */
+    public void register(AttemptSession session, Runnable onRegistered) {
+        afterCommit(() -> {
+            sessions.put(session.getAttemptId(), index(session));
+            onRegistered.run();
+        });
+    }
+
+    /**
+     * Load the running attempts, so per-exam views count them before their students
+     * make another request
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRunning() {
+        List<AttemptSessionView> running = examAttemptRepository.findIncompleteSessionViews();
+        for (AttemptSessionView view : running) {
+            sessions.computeIfAbsent(view.attemptId(), id -> index(toSession(view)));
+        }
+    }
+
+    /**
+     * Mark an attempt as completed, once the surrounding transaction commits
+     */
+    public void markCompleted(Long attemptId) {
+        afterCommit(() -> {
+            AttemptSession session = sessions.get(attemptId);
+            if (session != null) {
+                session.markCompleted();
+            }
+        });
+    }
+
+    public void moveToSection(Long attemptId, Section.SectionType sectionType) {
+        AttemptSession session = sessions.get(attemptId);
+        if (session != null) {
+            session.setCurrentSection(sectionType);
+        }
+    }
+
+    /**
+     * @return the sessions of an exam held in memory
+     */
+    public Collection<AttemptSession> getSessions(long examId) {
+        Map<Long, AttemptSession> examSessions = sessionsByExam.get(examId);
+        return examSessions == null ? List.of() : Collections.unmodifiableCollection(examSessions.values());
+    }
+
+    /**
+     * Drop sessions whose deadline passed more than the retention period ago;
+     * they are reloaded from the database if they are ever asked for again
+     */
+    @Scheduled(fixedDelayString = "${exam.sessions.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        long cutoff = System.currentTimeMillis() - retentionMinutes * 60_000;
+        sessions.values().removeIf(session -> {
+            if (session.getDeadlineEpochMillis() >= cutoff) {
+                return false;
+            }
+            sessionsByExam.computeIfPresent(session.getExamId(), (examId, examSessions) -> {
+                examSessions.remove(session.getAttemptId());
+                return examSessions.isEmpty() ? null : examSessions;
+            });
+            return true;
+        });
+    }
+
+    public static long deadlineOf(LocalDateTime startTime, Integer durationMinutes) {
+        return startTime.plusMinutes(durationMinutes).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private AttemptSession index(AttemptSession session) {
+        sessionsByExam.computeIfAbsent(session.getExamId(), examId -> new ConcurrentHashMap<>())
+                .put(session.getAttemptId(), session);
+        return session;
+    }
+
+    private AttemptSession toSession(AttemptSessionView view) {
+        return new AttemptSession(
+                view.attemptId(),
+                view.studentId(),
+                view.examId(),
+                deadlineOf(view.startTime(), view.durationMinutes()),
+                Boolean.TRUE.equals(view.isCompleted()),
+                null);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package org.exam.cache;
+
+import org.exam.dto.response.QuestionResponse;
+import org.exam.event.ExamContentChangedEvent;
+import org.exam.exception.ResourceNotFoundException;
+import org.exam.model.Exam;
+import org.exam.model.Question;
+import org.exam.model.QuestionOption;
+import org.exam.model.Section;
+import org.exam.repository.ExamRepository;
+import org.exam.repository.QuestionRepository;
+import org.exam.repository.SectionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Cache of immutable exam content snapshots used by the question delivery path.
+ *
+ * A snapshot is built on first use with three statements (exam, sections, questions
+ * with their options) and then served without touching the database until the
+ * exam's content changes.
+ */
+@Component
+public class ExamContentCache {
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private SectionRepository sectionRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    private final Map<Long, ExamSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * Get the content snapshot of an exam, building it if needed
+     *
+     * @param examId the ID of the exam
+     * @return the exam snapshot
+     * @throws ResourceNotFoundException if exam not found
+     */
+    public ExamSnapshot get(Long examId) {
+        // computeIfAbsent makes an eviction wait for a build in progress,
+        // so a snapshot built from stale content never survives the eviction
+        return snapshots.computeIfAbsent(examId, this::build);
+    }
+
+    public void evict(Long examId) {
+        snapshots.remove(examId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamContentChanged(ExamContentChangedEvent event) {
+        evict(event.examId());
+    }
+
+    private ExamSnapshot build(Long examId) {
+        Exam exam = examRepository.findById(examId)
+                .orElseThrow(() -> new ResourceNotFoundException("Exam not found with id: " + examId));
+
+        List<Section> sections = sectionRepository.findByExam(exam);
+
+        Map<Long, List<Question>> questionsBySection = questionRepository.findWithOptionsByExamId(examId).stream()
+                .collect(Collectors.groupingBy(question -> question.getSection().getId()));
+
+        List<ExamSnapshot.SectionSnapshot> sectionSnapshots = new ArrayList<>();
+        for (Section section : sections) {
+            List<ExamSnapshot.QuestionSnapshot> questions = questionsBySection
+                    .getOrDefault(section.getId(), List.of()).stream()
+                    .sorted(Comparator.comparing(Question::getId))
+                    .map(this::toQuestionSnapshot)
+                    .collect(Collectors.toList());
+
+            List<QuestionResponse> studentQuestions = questions.stream()
+                    .map(this::toStudentQuestion)
+                    .collect(Collectors.toList());
+
+            sectionSnapshots.add(new ExamSnapshot.SectionSnapshot(
+                    section.getId(),
+                    section.getSectionType(),
+                    section.getTitle(),
+                    section.getPassingMarks(),
+                    questions,
+                    studentQuestions));
+        }
+
+        return new ExamSnapshot(exam.getId(), exam.getTitle(), exam.getDurationMinutes(), sectionSnapshots);
+    }
+
+    private ExamSnapshot.QuestionSnapshot toQuestionSnapshot(Question question) {
+        List<ExamSnapshot.OptionSnapshot> options = question.getOptions().stream()
+                .sorted(Comparator.comparing(QuestionOption::getId))
+                .map(option -> new ExamSnapshot.OptionSnapshot(
+                        option.getId(),
+                        option.getOptionText(),
+                        Boolean.TRUE.equals(option.getIsCorrect())))
+                .collect(Collectors.toList());
+
+        return new ExamSnapshot.QuestionSnapshot(
+                question.getId(),
+                question.getQuestionType(),
+                question.getQuestionText(),
+                question.getMarks(),
+                options);
+    }
+
+    // Student view of a question: correct-answer information is left out
+    private QuestionResponse toStudentQuestion(ExamSnapshot.QuestionSnapshot question) {
+        List<QuestionResponse.QuestionOptionResponse> optionResponses = question.options().stream()
+                .map(option -> QuestionResponse.QuestionOptionResponse.builder()
+                        .id(option.id())
+                        .optionText(option.optionText())
+                        .build())
+                .collect(Collectors.toList());
+
+        return QuestionResponse.builder()
+                .id(question.id())
+                .questionText(question.questionText())
+                .questionType(question.questionType().name())
+                .options(optionResponses)
+                .build();
+    }
+}
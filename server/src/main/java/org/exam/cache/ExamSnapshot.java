@@ -0,0 +1,124 @@
+package org.exam.cache;
+
+import org.exam.dto.response.QuestionResponse;
+import org.exam.exception.ResourceNotFoundException;
+import org.exam.model.Question;
+import org.exam.model.Section;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable copy of an exam's content: sections, questions and options.
+ * Built once per exam by {@link ExamContentCache} and shared by all requests.
+ */
+public final class ExamSnapshot {
+
+    private final Long examId;
+    private final String title;
+    private final Integer durationMinutes;
+    private final List<SectionSnapshot> sections;
+    private final Map<Long, SectionSnapshot> sectionsById;
+    private final Map<Section.SectionType, SectionSnapshot> sectionsByType;
+
+    public ExamSnapshot(Long examId, String title, Integer durationMinutes, List<SectionSnapshot> sections) {
+        this.examId = examId;
+        this.title = title;
+        this.durationMinutes = durationMinutes;
+        this.sections = List.copyOf(sections);
+        this.sectionsById = this.sections.stream()
+                .collect(Collectors.toUnmodifiableMap(SectionSnapshot::id, Function.identity()));
+        this.sectionsByType = this.sections.stream()
+                .collect(Collectors.toUnmodifiableMap(SectionSnapshot::sectionType, Function.identity(),
+                        (first, second) -> first));
+    }
+
+    public Long getExamId() {
+        return examId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public List<SectionSnapshot> getSections() {
+        return sections;
+    }
+
+    public SectionSnapshot getSection(Long sectionId) {
+        SectionSnapshot section = sectionsById.get(sectionId);
+        if (section == null) {
+            throw new ResourceNotFoundException("Section not found with id: " + sectionId);
+        }
+        return section;
+    }
+
+    /**
+     * @return the passing marks of the section of the given type, or null if the exam has no such section
+     */
+    public Integer getPassingMarks(Section.SectionType sectionType) {
+        SectionSnapshot section = sectionsByType.get(sectionType);
+        return section == null ? null : section.passingMarks();
+    }
+
+    public SectionSnapshot getSection(Section.SectionType sectionType) {
+        SectionSnapshot section = sectionsByType.get(sectionType);
+        if (section == null) {
+            throw new ResourceNotFoundException("Section not found");
+        }
+        return section;
+    }
+
+    /**
+     * A section with its questions. {@code studentQuestions} is the pre-built student
+     * view of the questions, without any correct-answer information.
+     */
+    public record SectionSnapshot(Long id,
+                                  Section.SectionType sectionType,
+                                  String title,
+                                  Integer passingMarks,
+                                  List<QuestionSnapshot> questions,
+                                  Map<Long, QuestionSnapshot> questionsById,
+                                  List<QuestionResponse> studentQuestions) {
+
+        public SectionSnapshot(Long id, Section.SectionType sectionType, String title, Integer passingMarks,
+                               List<QuestionSnapshot> questions, List<QuestionResponse> studentQuestions) {
+            this(id, sectionType, title, passingMarks, List.copyOf(questions),
+                    questions.stream().collect(Collectors.toUnmodifiableMap(QuestionSnapshot::id, Function.identity())),
+                    List.copyOf(studentQuestions));
+        }
+
+        public QuestionSnapshot getQuestion(Long questionId) {
+            return questionsById.get(questionId);
+        }
+    }
+
+    public record QuestionSnapshot(Long id,
+                                   Question.QuestionType questionType,
+                                   String questionText,
+                                   Integer marks,
+                                   List<OptionSnapshot> options) {
+
+        public QuestionSnapshot {
+            options = List.copyOf(options);
+        }
+
+        public boolean hasOption(Long optionId) {
+            for (OptionSnapshot option : options) {
+                if (option.id().equals(optionId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    public record OptionSnapshot(Long id, String optionText, boolean correct) {
+    }
+}
@@ -0,0 +1,124 @@
+package org.exam.cache;
+
+import java.util.Locale;
+
+/**
+ * Pre-serialized section question payload: the UTF-8 JSON body and its gzip and
+ * deflate encodings, each with its own strong ETag.
+ */
+public final class SectionPayload {
+
+    public enum Encoding {
+        IDENTITY(null, ""), GZIP("gzip", "-gzip"), DEFLATE("deflate", "-deflate");
+
+        private final String contentEncoding;
+        private final String etagSuffix;
+
+        Encoding(String contentEncoding, String etagSuffix) {
+            this.contentEncoding = contentEncoding;
+            this.etagSuffix = etagSuffix;
+        }
+
+        /**
+         * @return the Content-Encoding header value, or null for the identity encoding
+         */
+        public String getContentEncoding() {
+            return contentEncoding;
+        }
+    }
+
+    private final ExamSnapshot source;
+    private final String etagBase;
+    private final byte[] identity;
+    private final byte[] gzip;
+    private final byte[] deflate;
+
+    SectionPayload(ExamSnapshot source, String etagBase, byte[] identity, byte[] gzip, byte[] deflate) {
+        this.source = source;
+        this.etagBase = etagBase;
+        this.identity = identity;
+        this.gzip = gzip;
+        this.deflate = deflate;
+    }
+
+    ExamSnapshot getSource() {
+        return source;
+    }
+
+    public byte[] getBody(Encoding encoding) {
+        return switch (encoding) {
+            case GZIP -> gzip;
+            case DEFLATE -> deflate;
+            case IDENTITY -> identity;
+        };
+    }
+
+    public String getETag(Encoding encoding) {
+        return "\"" + etagBase + encoding.etagSuffix + "\"";
+    }
+
+    /**
+     * Weak comparison of an If-None-Match header against the ETags of all encodings,
+     * as the content behind them is the same.
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            for (Encoding encoding : Encoding.values()) {
+                if (tag.equals(getETag(encoding))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Pick the encoding to send for an Accept-Encoding header, preferring gzip,
+     * then deflate, and skipping any coding the client refuses with q=0.
+     */
+    public static Encoding selectEncoding(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return Encoding.IDENTITY;
+        }
+
+        boolean gzipAccepted = false;
+        boolean deflateAccepted = false;
+        for (String part : acceptEncoding.toLowerCase(Locale.ROOT).split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim();
+            boolean accepted = true;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        accepted = Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        accepted = false;
+                    }
+                }
+            }
+
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipAccepted = accepted;
+            } else if (coding.equals("deflate")) {
+                deflateAccepted = accepted;
+            }
+        }
+
+        if (gzipAccepted) {
+            return Encoding.GZIP;
+        }
+        return deflateAccepted ? Encoding.DEFLATE : Encoding.IDENTITY;
+    }
+}
@@ -0,0 +1,96 @@
+package org.exam.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.exam.event.ExamContentChangedEvent;
+import org.exam.model.Section;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of rendered section question payloads, one per (exam, section type).
+ *
+ * Each payload remembers the content snapshot it was rendered from and is rendered
+ * again as soon as {@link ExamContentCache} hands out a newer snapshot.
+ */
+@Component
+public class SectionPayloadCache {
+
+    @Autowired
+    private ExamContentCache examContentCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<PayloadKey, SectionPayload> payloads = new ConcurrentHashMap<>();
+
+    public SectionPayload get(Long examId, Section.SectionType sectionType) {
+        ExamSnapshot snapshot = examContentCache.get(examId);
+        PayloadKey key = new PayloadKey(examId, sectionType);
+
+        SectionPayload payload = payloads.get(key);
+        if (payload != null && payload.getSource() == snapshot) {
+            return payload;
+        }
+
+        return payloads.compute(key, (k, existing) ->
+                existing != null && existing.getSource() == snapshot ? existing : render(snapshot, sectionType));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamContentChanged(ExamContentChangedEvent event) {
+        payloads.keySet().removeIf(key -> key.examId().equals(event.examId()));
+    }
+
+    private SectionPayload render(ExamSnapshot snapshot, Section.SectionType sectionType) {
+        ExamSnapshot.SectionSnapshot section = snapshot.getSection(sectionType);
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("sectionType", section.sectionType().name());
+        body.put("totalQuestions", section.studentQuestions().size());
+        body.put("questions", section.studentQuestions());
+
+        try {
+            byte[] identity = objectMapper.writeValueAsBytes(body);
+            byte[] gzip = compress(identity, new ByteArrayOutputStream(), true);
+            byte[] deflate = compress(identity, new ByteArrayOutputStream(), false);
+            return new SectionPayload(snapshot, digest(identity), identity, gzip, deflate);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to render section questions", e);
+        }
+    }
+
+    private byte[] compress(byte[] data, ByteArrayOutputStream target, boolean gzip) {
+        try (OutputStream out = gzip ? new GZIPOutputStream(target) : new DeflaterOutputStream(target)) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to compress section questions", e);
+        }
+        return target.toByteArray();
+    }
+
+    private String digest(byte[] data) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(data);
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record PayloadKey(Long examId, Section.SectionType sectionType) {
+    }
+}
@@ -1,20 +1,35 @@
 package org.exam.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.exam.dto.request.ExamCreationRequest;
 import org.exam.dto.request.QuestionCreationRequest;
 import org.exam.dto.request.ReportGenerationRequest;
 import org.exam.dto.response.ExamResponse;
+import org.exam.report.ResultCube;
+import org.exam.report.ResultExportFormat;
+import org.exam.report.ResultExporter;
 import org.exam.service.AdminService;
 import org.exam.service.ExamService;
+import org.exam.service.QuestionImportService;
+import org.exam.util.FileDownloadWriter;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -29,11 +44,40 @@ public class AdminController {
     @Autowired
     private ExamService examService;
 
+    @Autowired
+    private FileDownloadWriter fileDownloadWriter;
+
+    @Autowired
+    private ResultExporter resultExporter;
+
+    @Autowired
+    private QuestionImportService questionImportService;
+
+    @Value("${exam.export.timeout-ms:600000}")
+    private long exportTimeoutMs;
+
     @PostMapping("/exams")
     public ResponseEntity<ExamResponse> createExam(@Valid @RequestBody ExamCreationRequest request) {
         return ResponseEntity.ok(adminService.createExam(request));
     }
 
+    @GetMapping("/exams")
+    public ResponseEntity<Map<String, Object>> getAllExams(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(examService.getAllExams(page, size));
+    }
+
+    @PutMapping("/exams/{examId}/activate")
+    public ResponseEntity<ExamResponse> activateExam(@PathVariable Long examId) {
+        return ResponseEntity.ok(adminService.setExamActive(examId, true));
+    }
+
+    @PutMapping("/exams/{examId}/deactivate")
+    public ResponseEntity<ExamResponse> deactivateExam(@PathVariable Long examId) {
+        return ResponseEntity.ok(adminService.setExamActive(examId, false));
+    }
+
     @PostMapping("/exams/{examId}/sections/{sectionId}/questions")
     public ResponseEntity<Map<String, Object>> addQuestionsToSection(
             @PathVariable Long examId,
@@ -42,17 +86,94 @@ public class AdminController {
         return ResponseEntity.ok(adminService.addQuestionsToSection(examId, sectionId, questions));
     }
 
+    @PostMapping(value = "/exams/{examId}/sections/{sectionId}/questions/import",
+            consumes = {"text/csv", "application/x-ndjson", "application/jsonl"})
+    public ResponseEntity<Map<String, Object>> importQuestions(
+            @PathVariable Long examId,
+            @PathVariable Long sectionId,
+            HttpServletRequest request) throws IOException {
+        QuestionImportService.Format format = request.getContentType().startsWith("text/csv")
+                ? QuestionImportService.Format.CSV
+                : QuestionImportService.Format.JSON_LINES;
+        return ResponseEntity.ok(questionImportService.importQuestions(
+                examId, sectionId, request.getInputStream(), format));
+    }
+
+    @GetMapping("/exams/{examId}/results")
+    public ResponseEntity<Map<String, Object>> getResultSummary(
+            @PathVariable Long examId,
+            @RequestParam(required = false) String college,
+            @RequestParam(required = false) String branch,
+            @RequestParam(required = false) String academicYear,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer aptitude,
+            @RequestParam(required = false) Integer reasoning,
+            @RequestParam(required = false) Integer coding,
+            @RequestParam(required = false) ResultCube.Dimension groupBy) {
+        return ResponseEntity.ok(adminService.getResultSummary(examId,
+                new ResultCube.Filter(college, branch, academicYear, from, to),
+                new ResultCube.PassingMarks(aptitude, reasoning, coding),
+                groupBy));
+    }
+
+    @GetMapping("/exams/{examId}/presence")
+    public ResponseEntity<Map<String, Object>> getPresence(@PathVariable Long examId) {
+        return ResponseEntity.ok(adminService.getPresence(examId));
+    }
+
+    @GetMapping(value = "/exams/{examId}/monitor", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter monitorExam(@PathVariable Long examId) {
+        return adminService.openMonitor(examId);
+    }
+
+    @GetMapping("/exams/{examId}/flagged-attempts")
+    public ResponseEntity<Map<String, Object>> getFlaggedAttempts(@PathVariable Long examId) {
+        return ResponseEntity.ok(adminService.getFlaggedAttempts(examId));
+    }
+
+    @GetMapping("/exams/{examId}/results/export")
+    public WebAsyncTask<Void> exportResults(
+            @PathVariable Long examId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) String college,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response) {
+        ResultExportFormat exportFormat = ResultExportFormat.from(format);
+        boolean compressed = gzip && exportFormat.isCompressible();
+        StreamingResponseBody body = resultExporter.export(examId, college, exportFormat, compressed);
+
+        response.setContentType(exportFormat.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"exam-" + examId + "-results." + exportFormat.getExtension() + "\"");
+        if (compressed) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        // Large cohorts can outlast the default async timeout, which the event streams keep
+        return new WebAsyncTask<>(exportTimeoutMs, () -> {
+            body.writeTo(response.getOutputStream());
+            response.flushBuffer();
+            return null;
+        });
+    }
+
     @PostMapping("/reports")
     public ResponseEntity<Map<String, Object>> generateReport(@Valid @RequestBody ReportGenerationRequest request) {
-        return ResponseEntity.ok(adminService.generateReport(request));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(adminService.generateReport(request));
+    }
+
+    @GetMapping("/reports/{reportId}")
+    public ResponseEntity<Map<String, Object>> getReportStatus(@PathVariable Long reportId) {
+        return ResponseEntity.ok(adminService.getReportStatus(reportId));
     }
 
     @GetMapping("/reports/{reportId}/download")
-    public ResponseEntity<Resource> downloadReport(@PathVariable Long reportId) {
-        Resource resource = adminService.getReportResource(reportId);
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_PDF)
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"report.pdf\"")
-                .body(resource);
+    public void downloadReport(@PathVariable Long reportId,
+                               HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+        Path file = adminService.getReportFile(reportId);
+        fileDownloadWriter.write(file, MediaType.APPLICATION_PDF_VALUE, "report-" + reportId + ".pdf",
+                request, response);
     }
 }
@@ -1,17 +1,24 @@
 package org.exam.controller;
 
 import jakarta.validation.Valid;
+import org.exam.cache.SectionPayload;
 import org.exam.dto.request.AnswerSubmissionRequest;
-import org.exam.dto.response.ExamResponse;
-import org.exam.dto.response.QuestionResponse;
+import org.exam.security.CurrentUser;
 import org.exam.service.ExamService;
+import org.exam.service.ExamStartAdmission;
 import org.exam.service.StudentService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.List;
+import java.time.LocalDateTime;
 import java.util.Map;
 
 @RestController
@@ -25,21 +32,58 @@ public class StudentController {
     @Autowired
     private ExamService examService;
 
+    @Autowired
+    private ExamStartAdmission examStartAdmission;
+
+    @Autowired
+    private CurrentUser currentUser;
+
     @GetMapping("/exams")
-    public ResponseEntity<Map<String, List<ExamResponse>>> getAvailableExams() {
+    public ResponseEntity<Map<String, Object>> getAvailableExams() {
         return ResponseEntity.ok(studentService.getAvailableExams());
     }
 
+    @GetMapping("/exams/past")
+    public ResponseEntity<Map<String, Object>> getPastExams(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeEndTime,
+            @RequestParam(required = false) Long beforeAttemptId,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(studentService.getPastExams(beforeEndTime, beforeAttemptId, size));
+    }
+
     @PostMapping("/exams/{examId}/start")
     public ResponseEntity<Map<String, Object>> startExam(@PathVariable Long examId) {
+        // Pass the waiting room before a transaction (and a pooled connection) is taken
+        examStartAdmission.admit(examId, currentUser.studentId());
         return ResponseEntity.ok(studentService.startExam(examId));
     }
 
     @GetMapping("/attempts/{attemptId}/sections/{sectionType}/questions")
-    public ResponseEntity<Map<String, Object>> getSectionQuestions(
+    public ResponseEntity<byte[]> getSectionQuestions(
             @PathVariable Long attemptId,
-            @PathVariable String sectionType) {
-        return ResponseEntity.ok(studentService.getSectionQuestions(attemptId, sectionType));
+            @PathVariable String sectionType,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        SectionPayload payload = studentService.getSectionQuestions(attemptId, sectionType);
+        SectionPayload.Encoding encoding = SectionPayload.selectEncoding(acceptEncoding);
+
+        if (payload.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(payload.getETag(encoding))
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(payload.getETag(encoding))
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (encoding.getContentEncoding() != null) {
+            response.header(HttpHeaders.CONTENT_ENCODING, encoding.getContentEncoding());
+        }
+        return response.body(payload.getBody(encoding));
     }
 
     @PostMapping("/attempts/{attemptId}/sections/{sectionType}/submit")
@@ -55,6 +99,16 @@ public class StudentController {
         return ResponseEntity.ok(studentService.completeExam(attemptId));
     }
 
+    @PostMapping("/attempts/{attemptId}/heartbeat")
+    public ResponseEntity<Map<String, Object>> heartbeat(@PathVariable Long attemptId) {
+        return ResponseEntity.ok(studentService.heartbeat(attemptId));
+    }
+
+    @GetMapping(value = "/attempts/{attemptId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@PathVariable Long attemptId) {
+        return studentService.openEventStream(attemptId);
+    }
+
     @PostMapping("/attempts/{attemptId}/events/focus-loss")
     public ResponseEntity<Map<String, Object>> logFocusLossEvent(
             @PathVariable Long attemptId,
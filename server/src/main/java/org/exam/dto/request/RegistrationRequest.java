@@ -26,4 +26,6 @@ public class RegistrationRequest {
 
     @NotBlank(message = "Academic year cannot be empty")
     private String academicYear;
+
+    private String college;
 }
@@ -0,0 +1,9 @@
+package org.exam.event;
+
+import java.util.List;
+
+/**
+ * Published when exam attempts are completed, by the student or by the deadline scheduler.
+ */
+public record AttemptsCompletedEvent(List<Long> attemptIds) {
+}
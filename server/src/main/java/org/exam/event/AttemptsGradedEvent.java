@@ -0,0 +1,10 @@
+package org.exam.event;
+
+import java.util.List;
+
+/**
+ * Published when the answers of completed exam attempts have been graded and their
+ * section totals updated.
+ */
+public record AttemptsGradedEvent(List<Long> attemptIds) {
+}
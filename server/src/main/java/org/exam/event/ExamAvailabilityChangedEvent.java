@@ -0,0 +1,7 @@
+package org.exam.event;
+
+/**
+ * Published when an exam is created, activated or deactivated.
+ */
+public record ExamAvailabilityChangedEvent(Long examId) {
+}
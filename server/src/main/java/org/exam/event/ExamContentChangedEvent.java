@@ -0,0 +1,7 @@
+package org.exam.event;
+
+/**
+ * Published when the sections, questions or options of an exam change.
+ */
+public record ExamContentChangedEvent(Long examId) {
+}
@@ -0,0 +1,31 @@
+package org.exam.exception;
+
+/**
+ * Thrown when an exam start request is not admitted yet: the student is queued
+ * (or the queue is full) and should retry after the given number of seconds.
+ */
+public class AdmissionDeferredException extends RuntimeException {
+
+    private final long position;
+    private final long retryAfterSeconds;
+    private final boolean queueFull;
+
+    public AdmissionDeferredException(String message, long position, long retryAfterSeconds, boolean queueFull) {
+        super(message);
+        this.position = position;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.queueFull = queueFull;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public boolean isQueueFull() {
+        return queueFull;
+    }
+}
@@ -0,0 +1,145 @@
+package org.exam.grading;
+
+import org.exam.cache.ExamSnapshot;
+import org.exam.model.Question;
+import org.exam.model.Section;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Compiled answer key of an exam.
+ *
+ * Questions are numbered into slots and the options of each question into bits, so
+ * a student's selection is a bitmask and grading an objective question is a single
+ * comparison against the question's mask of correct options. Lookups are binary
+ * searches over sorted primitive arrays and allocate nothing.
+ */
+public final class AnswerKey {
+
+    // Questions with more options than bits in a mask are left for manual grading
+    private static final int MAX_OPTIONS = Long.SIZE;
+
+    private final long[] questionIds;
+    private final long[] correctMasks;
+    private final int[] marks;
+    private final boolean[] objective;
+    private final Section.SectionType[] sectionTypes;
+
+    private final long[] optionIds;
+    private final int[] optionSlots;
+    private final long[] optionBits;
+
+    private AnswerKey(long[] questionIds, long[] correctMasks, int[] marks, boolean[] objective,
+                      Section.SectionType[] sectionTypes, long[] optionIds, int[] optionSlots, long[] optionBits) {
+        this.questionIds = questionIds;
+        this.correctMasks = correctMasks;
+        this.marks = marks;
+        this.objective = objective;
+        this.sectionTypes = sectionTypes;
+        this.optionIds = optionIds;
+        this.optionSlots = optionSlots;
+        this.optionBits = optionBits;
+    }
+
+    public static AnswerKey compile(ExamSnapshot snapshot) {
+        List<QuestionEntry> questions = new ArrayList<>();
+        for (ExamSnapshot.SectionSnapshot section : snapshot.getSections()) {
+            for (ExamSnapshot.QuestionSnapshot question : section.questions()) {
+                questions.add(new QuestionEntry(question, section.sectionType()));
+            }
+        }
+        questions.sort(Comparator.comparing(entry -> entry.question().id()));
+
+        int count = questions.size();
+        long[] questionIds = new long[count];
+        long[] correctMasks = new long[count];
+        int[] marks = new int[count];
+        boolean[] objective = new boolean[count];
+        Section.SectionType[] sectionTypes = new Section.SectionType[count];
+
+        List<long[]> options = new ArrayList<>();
+        for (int slot = 0; slot < count; slot++) {
+            ExamSnapshot.QuestionSnapshot question = questions.get(slot).question();
+            questionIds[slot] = question.id();
+            marks[slot] = question.marks() == null ? 0 : question.marks();
+            sectionTypes[slot] = questions.get(slot).sectionType();
+            objective[slot] = isObjective(question.questionType()) && question.options().size() <= MAX_OPTIONS;
+
+            if (!objective[slot]) {
+                continue;
+            }
+            for (int bit = 0; bit < question.options().size(); bit++) {
+                ExamSnapshot.OptionSnapshot option = question.options().get(bit);
+                options.add(new long[]{option.id(), slot, bit});
+                if (option.correct()) {
+                    correctMasks[slot] |= 1L << bit;
+                }
+            }
+        }
+
+        options.sort(Comparator.comparingLong(option -> option[0]));
+        long[] optionIds = new long[options.size()];
+        int[] optionSlots = new int[options.size()];
+        long[] optionBits = new long[options.size()];
+        for (int i = 0; i < options.size(); i++) {
+            optionIds[i] = options.get(i)[0];
+            optionSlots[i] = (int) options.get(i)[1];
+            optionBits[i] = 1L << options.get(i)[2];
+        }
+
+        return new AnswerKey(questionIds, correctMasks, marks, objective, sectionTypes,
+                optionIds, optionSlots, optionBits);
+    }
+
+    /**
+     * @return the slot of a question, or -1 if the question is not part of the exam
+     */
+    public int slotOf(long questionId) {
+        int slot = Arrays.binarySearch(questionIds, questionId);
+        return slot < 0 ? -1 : slot;
+    }
+
+    /**
+     * @return the bit of an option within the question in the given slot, or 0 if the
+     * option does not belong to that question
+     */
+    public long bitOf(int slot, long optionId) {
+        int i = Arrays.binarySearch(optionIds, optionId);
+        return i >= 0 && optionSlots[i] == slot ? optionBits[i] : 0;
+    }
+
+    public boolean isObjective(int slot) {
+        return objective[slot];
+    }
+
+    /**
+     * An objective answer is correct when exactly the correct options are selected
+     */
+    public boolean isCorrect(int slot, long selectedMask) {
+        return selectedMask != 0 && selectedMask == correctMasks[slot];
+    }
+
+    public int marksOf(int slot) {
+        return marks[slot];
+    }
+
+    public Section.SectionType sectionOf(int slot) {
+        return sectionTypes[slot];
+    }
+
+    public int questionCount() {
+        return questionIds.length;
+    }
+
+    private static boolean isObjective(Question.QuestionType type) {
+        return type == Question.QuestionType.MULTIPLE_CHOICE_SINGLE
+                || type == Question.QuestionType.MULTIPLE_CHOICE_MULTIPLE
+                || type == Question.QuestionType.TRUE_FALSE;
+    }
+
+    private record QuestionEntry(ExamSnapshot.QuestionSnapshot question, Section.SectionType sectionType) {
+    }
+}
@@ -0,0 +1,44 @@
+package org.exam.grading;
+
+import org.exam.cache.ExamContentCache;
+import org.exam.cache.ExamSnapshot;
+import org.exam.event.ExamContentChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled answer keys, one per exam, recompiled whenever the exam's content
+ * snapshot is replaced.
+ */
+@Component
+public class AnswerKeyCache {
+
+    @Autowired
+    private ExamContentCache examContentCache;
+
+    private final Map<Long, CompiledKey> keys = new ConcurrentHashMap<>();
+
+    public AnswerKey get(Long examId) {
+        ExamSnapshot snapshot = examContentCache.get(examId);
+
+        CompiledKey compiled = keys.get(examId);
+        if (compiled == null || compiled.source() != snapshot) {
+            compiled = keys.compute(examId, (id, existing) -> existing != null && existing.source() == snapshot
+                    ? existing
+                    : new CompiledKey(snapshot, AnswerKey.compile(snapshot)));
+        }
+        return compiled.key();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamContentChanged(ExamContentChangedEvent event) {
+        keys.remove(event.examId());
+    }
+
+    private record CompiledKey(ExamSnapshot source, AnswerKey key) {
+    }
+}
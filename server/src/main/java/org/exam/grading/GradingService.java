@@ -0,0 +1,257 @@
+package org.exam.grading;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.exam.event.AttemptsCompletedEvent;
+import org.exam.event.AttemptsGradedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Grades the objective answers of completed attempts against the compiled answer key.
+ *
+ * Answers are read with one query per batch of attempts, each answer's selected
+ * options are folded into a bitmask and compared with the key, and the results are
+ * written back with a JDBC batch. Short answer and code questions are left ungraded
+ * (is_correct stays null) for manual review.
+ *
+ * The section totals on exam_attempts are then recomputed from the answer rows,
+ * counting only questions still in the attempt's exam. Every write is an absolute
+ * value, so grading an attempt again, or twice at once, leaves the same totals.
+ *
+ * Grading is triggered by completion events, which are lost if the server stops
+ * or the grading queue is full. A sweep at startup and every
+ * {@code exam.grading.sweep-interval-ms} therefore grades completed attempts that
+ * still have ungraded objective answers.
+ */
+@Service
+public class GradingService {
+
+    private static final Logger log = LoggerFactory.getLogger(GradingService.class);
+
+    private static final String ANSWERS_SQL =
+            "SELECT sa.id AS answer_id, a.exam_id, sa.question_id, sao.option_id " +
+            "FROM student_answers sa " +
+            "JOIN exam_attempts a ON a.id = sa.attempt_id " +
+            "LEFT JOIN student_answer_options sao ON sao.student_answer_id = sa.id " +
+            "WHERE sa.attempt_id IN (:attemptIds) " +
+            "ORDER BY sa.id";
+
+    private static final String UPDATE_ANSWER_SQL =
+            "UPDATE student_answers SET is_correct = ?, marks_awarded = ? WHERE id = ?";
+
+    private static final String SECTION_TOTAL_SQL =
+            "(SELECT COALESCE(SUM(sa.marks_awarded), 0) FROM student_answers sa " +
+            "JOIN questions q ON q.id = sa.question_id " +
+            "JOIN sections s ON s.id = q.section_id " +
+            "WHERE sa.attempt_id = a.id AND s.exam_id = a.exam_id AND s.section_type = '%s')";
+
+    private static final String UPDATE_SECTION_SCORES_SQL =
+            "UPDATE exam_attempts a SET " +
+            "aptitude_score = " + SECTION_TOTAL_SQL.formatted("APTITUDE") + ", " +
+            "reasoning_score = " + SECTION_TOTAL_SQL.formatted("REASONING") + ", " +
+            "coding_score = " + SECTION_TOTAL_SQL.formatted("CODING") + " " +
+            "WHERE a.id IN (:attemptIds)";
+
+    private static final String UNGRADED_ATTEMPTS_SQL =
+            "SELECT DISTINCT sa.attempt_id FROM student_answers sa " +
+            "JOIN exam_attempts a ON a.id = sa.attempt_id " +
+            "JOIN questions q ON q.id = sa.question_id " +
+            "WHERE a.is_completed = true AND a.end_time < ? AND sa.attempt_id > ? " +
+            "AND sa.is_correct IS NULL " +
+            "AND q.question_type IN ('MULTIPLE_CHOICE_SINGLE', 'MULTIPLE_CHOICE_MULTIPLE', 'TRUE_FALSE') " +
+            "ORDER BY sa.attempt_id LIMIT ?";
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    @Qualifier("gradingExecutor")
+    private TaskExecutor gradingExecutor;
+
+    @Value("${exam.grading.batch-size:200}")
+    private int batchSize;
+
+    // Attempts completed this recently are left to their completion event
+    @Value("${exam.grading.sweep-grace-seconds:300}")
+    private long sweepGraceSeconds;
+
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    private Timer gradingTimer;
+
+    @PostConstruct
+    public void registerMetrics() {
+        gradingTimer = Timer.builder("exam.grading")
+                .description("Time taken to grade one batch of completed attempts")
+                .register(meterRegistry);
+    }
+
+    @Async("gradingExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAttemptsCompleted(AttemptsCompletedEvent event) {
+        try {
+            gradeAttempts(event.attemptIds());
+        } catch (RuntimeException e) {
+            log.error("Failed to grade attempts {}", event.attemptIds(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${exam.grading.sweep-interval-ms:600000}")
+    public void sweepUngraded() {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            gradingExecutor.execute(() -> {
+                try {
+                    gradeUngraded();
+                } finally {
+                    sweeping.set(false);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            sweeping.set(false);
+            log.warn("Grading queue is full, skipping the sweep for ungraded attempts");
+        }
+    }
+
+    private void gradeUngraded() {
+        Timestamp completedBefore = Timestamp.valueOf(LocalDateTime.now().minusSeconds(sweepGraceSeconds));
+        long afterAttemptId = 0;
+        int graded = 0;
+        while (true) {
+            List<Long> attemptIds = jdbcTemplate.queryForList(UNGRADED_ATTEMPTS_SQL, Long.class,
+                    completedBefore, afterAttemptId, batchSize);
+            if (attemptIds.isEmpty()) {
+                break;
+            }
+            // Keyed on the last attempt, so a batch that keeps failing is not picked up again in this sweep
+            afterAttemptId = attemptIds.get(attemptIds.size() - 1);
+            try {
+                gradeAttempts(attemptIds);
+                graded += attemptIds.size();
+            } catch (RuntimeException e) {
+                log.error("Failed to grade attempts {}", attemptIds, e);
+            }
+        }
+        if (graded > 0) {
+            log.info("Graded {} completed attempts that had been left ungraded", graded);
+        }
+    }
+
+    /**
+     * Grade the objective answers of the given attempts
+     *
+     * @param attemptIds the IDs of completed exam attempts
+     */
+    public void gradeAttempts(List<Long> attemptIds) {
+        for (int from = 0; from < attemptIds.size(); from += batchSize) {
+            List<Long> batch = attemptIds.subList(from, Math.min(from + batchSize, attemptIds.size()));
+            gradingTimer.record(() -> transactionTemplate.executeWithoutResult(status -> gradeBatch(batch)));
+            eventPublisher.publishEvent(new AttemptsGradedEvent(List.copyOf(batch)));
+        }
+    }
+
+    private void gradeBatch(List<Long> attemptIds) {
+        AnswerGrader grader = new AnswerGrader();
+        namedParameterJdbcTemplate.query(ANSWERS_SQL, Map.of("attemptIds", attemptIds), grader::processRow);
+        grader.finishAnswer();
+
+        jdbcTemplate.batchUpdate(UPDATE_ANSWER_SQL, grader.updates);
+
+        // Totals are recomputed rather than adjusted, so they always match the answer rows
+        namedParameterJdbcTemplate.update(UPDATE_SECTION_SCORES_SQL, Map.of("attemptIds", attemptIds));
+    }
+
+    /**
+     * Folds the rows of one answer (one row per selected option, ordered by answer)
+     * into a bitmask and grades it when the next answer starts.
+     */
+    private final class AnswerGrader {
+
+        private final List<Object[]> updates = new ArrayList<>();
+
+        private long answerId = -1;
+        private AnswerKey key;
+        private int slot;
+        private long selectedMask;
+        private boolean invalidOption;
+
+        void processRow(ResultSet rs) throws SQLException {
+            long rowAnswerId = rs.getLong("answer_id");
+            if (rowAnswerId != answerId) {
+                finishAnswer();
+                answerId = rowAnswerId;
+                key = answerKeyCache.get(rs.getLong("exam_id"));
+                slot = key.slotOf(rs.getLong("question_id"));
+                selectedMask = 0;
+                invalidOption = false;
+            }
+
+            long optionId = rs.getLong("option_id");
+            if (!rs.wasNull() && slot >= 0) {
+                long bit = key.bitOf(slot, optionId);
+                if (bit == 0) {
+                    invalidOption = true;
+                }
+                selectedMask |= bit;
+            }
+        }
+
+        void finishAnswer() {
+            if (answerId < 0) {
+                return;
+            }
+
+            if (slot < 0) {
+                // The question is no longer part of the exam
+                updates.add(new Object[]{false, BigDecimal.ZERO, answerId});
+            } else if (key.isObjective(slot)) {
+                boolean correct = !invalidOption && key.isCorrect(slot, selectedMask);
+                BigDecimal marks = correct ? BigDecimal.valueOf(key.marksOf(slot)) : BigDecimal.ZERO;
+                updates.add(new Object[]{correct, marks, answerId});
+            }
+            answerId = -1;
+        }
+    }
+}
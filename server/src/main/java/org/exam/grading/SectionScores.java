@@ -0,0 +1,40 @@
+package org.exam.grading;
+
+import org.exam.model.ExamAttempt;
+import org.exam.model.ExamReport;
+
+import java.math.BigDecimal;
+
+/**
+ * The three section totals of an attempt, with the pass/fail evaluation against
+ * the passing marks of a report.
+ */
+public record SectionScores(BigDecimal aptitude, BigDecimal reasoning, BigDecimal coding) {
+
+    public SectionScores {
+        aptitude = aptitude == null ? BigDecimal.ZERO : aptitude;
+        reasoning = reasoning == null ? BigDecimal.ZERO : reasoning;
+        coding = coding == null ? BigDecimal.ZERO : coding;
+    }
+
+    public static SectionScores of(ExamAttempt attempt) {
+        return new SectionScores(attempt.getAptitudeScore(), attempt.getReasoningScore(), attempt.getCodingScore());
+    }
+
+    /**
+     * An attempt passes when every section reaches its passing marks
+     */
+    public boolean passes(ExamReport report) {
+        return passes(report.getAptitudePassingMarks(), report.getReasoningPassingMarks(), report.getCodingPassingMarks());
+    }
+
+    public boolean passes(Integer aptitudePassingMarks, Integer reasoningPassingMarks, Integer codingPassingMarks) {
+        return reaches(aptitude, aptitudePassingMarks)
+                && reaches(reasoning, reasoningPassingMarks)
+                && reaches(coding, codingPassingMarks);
+    }
+
+    private static boolean reaches(BigDecimal score, Integer passingMarks) {
+        return passingMarks == null || score.compareTo(BigDecimal.valueOf(passingMarks)) >= 0;
+    }
+}
@@ -0,0 +1,25 @@
+package org.exam.id;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+
+/**
+ * Hibernate side of {@link IdBlockAllocator}: ids are known before the INSERT, so
+ * Hibernate can batch and reorder inserts, which IDENTITY columns prevent.
+ */
+public class BlockIdGenerator implements IdentifierGenerator {
+
+    private final String table;
+
+    public BlockIdGenerator(BlockId config, Member member, CustomIdGeneratorCreationContext context) {
+        this.table = context.getPersistentClass().getTable().getName();
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return IdBlockAllocator.getInstance().next(table);
+    }
+}
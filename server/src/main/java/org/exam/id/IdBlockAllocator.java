@@ -0,0 +1,148 @@
+package org.exam.id;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out ids of the high-volume tables from blocks reserved in id_blocks.
+ *
+ * A block of {@code exam.ids.block-size} ids is reserved in its own short
+ * transaction, and ids are then taken from it in memory, so one round trip serves
+ * a whole block of inserts. Reservations run on a small pool of their own
+ * ({@code exam.ids.pool-size} connections): the caller usually already holds a
+ * connection of the main pool, and waiting for a second one from an exhausted
+ * pool while holding the block could deadlock. The first reservation for a table starts after its
+ * current MAX(id), so existing rows are never reused. Ids left in a block at
+ * shutdown are skipped, leaving gaps.
+ *
+ * Every writer of these tables, through Hibernate ({@link BlockId}) or plain JDBC,
+ * must take its ids from here.
+ */
+@Component
+public class IdBlockAllocator {
+
+    private static final String SELECT_SQL = "SELECT next_val FROM id_blocks WHERE table_name = ? FOR UPDATE";
+
+    private static final String INSERT_SQL = "INSERT INTO id_blocks (table_name, next_val) VALUES (?, ?)";
+
+    private static final String UPDATE_SQL = "UPDATE id_blocks SET next_val = ? WHERE table_name = ?";
+
+    // Hibernate creates its id generators itself, so they reach the allocator through this
+    private static volatile IdBlockAllocator instance;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Value("${exam.ids.block-size:1000}")
+    private int blockSize;
+
+    @Value("${exam.ids.pool-size:2}")
+    private int poolSize;
+
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    private HikariDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate reserveTransaction;
+
+    @PostConstruct
+    public void init() {
+        dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("id-blocks");
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setMinimumIdle(1);
+
+        // A transaction of this pool never joins the caller's, so the id_blocks row is locked only briefly
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        reserveTransaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        instance = this;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+
+    static IdBlockAllocator getInstance() {
+        if (instance == null) {
+            throw new IllegalStateException("Id allocator is not initialized");
+        }
+        return instance;
+    }
+
+    /**
+     * @return the next id of a table
+     */
+    public long next(String table) {
+        return blocks.computeIfAbsent(table, Block::new).next(1)[0];
+    }
+
+    /**
+     * @return the next {@code count} ids of a table, in ascending order
+     */
+    public long[] next(String table, int count) {
+        return blocks.computeIfAbsent(table, Block::new).next(count);
+    }
+
+    private long reserve(String table, int size) {
+        while (true) {
+            try {
+                return reserveTransaction.execute(status -> {
+                    List<Long> current = jdbcTemplate.queryForList(SELECT_SQL, Long.class, table);
+                    if (current.isEmpty()) {
+                        // The table name comes from entity mappings and constants, never from requests
+                        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+                        long start = max == null ? 1 : max + 1;
+                        jdbcTemplate.update(INSERT_SQL, table, start + size);
+                        return start;
+                    }
+                    long start = current.get(0);
+                    jdbcTemplate.update(UPDATE_SQL, start + size, table);
+                    return start;
+                });
+            } catch (DuplicateKeyException e) {
+                // Another instance seeded the table first; reserve from its row
+            }
+        }
+    }
+
+    private final class Block {
+        private final String table;
+        private long next;
+        private long limit;
+
+        private Block(String table) {
+            this.table = table;
+        }
+
+        synchronized long[] next(int count) {
+            long[] ids = new long[count];
+            for (int i = 0; i < count; i++) {
+                if (next == limit) {
+                    int size = Math.max(blockSize, count - i);
+                    next = reserve(table, size);
+                    limit = next + size;
+                }
+                ids[i] = next++;
+            }
+            return ids;
+        }
+    }
+}
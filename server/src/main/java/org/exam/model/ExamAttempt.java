@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.exam.id.BlockId;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -13,11 +15,14 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "exam_attempts")
+@Table(name = "exam_attempts", indexes = {
+        @Index(name = "idx_exam_attempts_exam_completed", columnList = "exam_id, is_completed, id"),
+        @Index(name = "idx_exam_attempts_student_history", columnList = "student_id, is_completed, end_time, id")
+})
 public class ExamAttempt {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @BlockId
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -37,9 +42,31 @@ public class ExamAttempt {
     @Column(name = "is_completed")
     private Boolean isCompleted = false;
 
+    // Section totals, recomputed from the graded answer rows each time the attempt is graded
+    @Column(name = "aptitude_score", precision = 7, scale = 2)
+    private BigDecimal aptitudeScore = BigDecimal.ZERO;
+
+    @Column(name = "reasoning_score", precision = 7, scale = 2)
+    private BigDecimal reasoningScore = BigDecimal.ZERO;
+
+    @Column(name = "coding_score", precision = 7, scale = 2)
+    private BigDecimal codingScore = BigDecimal.ZERO;
+
+    // Highest focus-loss violation level reached, set when the attempt is flagged for review
+    @Enumerated(EnumType.STRING)
+    @Column(name = "violation_level")
+    private ViolationLevel violationLevel;
+
+    @Column(name = "flagged_at")
+    private LocalDateTime flaggedAt;
+
     @OneToMany(mappedBy = "attempt", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<StudentAnswer> answers = new ArrayList<>();
 
     @OneToMany(mappedBy = "attempt", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<FocusLossEvent> focusLossEvents = new ArrayList<>();
+
+    public enum ViolationLevel {
+        LOW, MEDIUM, HIGH, CRITICAL
+    }
 }
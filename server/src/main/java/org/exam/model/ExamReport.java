@@ -43,4 +43,30 @@ public class ExamReport {
 
     @Column(name = "coding_passing_marks")
     private Integer codingPassingMarks;
+
+    @Column(name = "total_students")
+    private Integer totalStudents;
+
+    @Column(name = "passed_students")
+    private Integer passedStudents;
+
+    @Column(name = "failed_students")
+    private Integer failedStudents;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private Status status = Status.QUEUED;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "error_message")
+    private String errorMessage;
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
 }
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.exam.id.BlockId;
 
 import java.time.LocalDateTime;
 
@@ -15,7 +16,7 @@ import java.time.LocalDateTime;
 public class FocusLossEvent {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @BlockId
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -30,4 +31,8 @@ public class FocusLossEvent {
 
     @Column(name = "duration_seconds")
     private Integer durationSeconds = 0;
+
+    // Number of client events folded into this row when the ingestion queue was under load
+    @Column(name = "event_count")
+    private Integer eventCount = 1;
 }
@@ -0,0 +1,24 @@
+package org.exam.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The next unreserved id of a table whose ids are handed out in blocks.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "id_blocks")
+public class IdBlock {
+
+    @Id
+    @Column(name = "table_name", length = 64)
+    private String tableName;
+
+    @Column(name = "next_val", nullable = false)
+    private Long nextValue;
+}
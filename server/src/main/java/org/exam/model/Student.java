@@ -23,6 +23,9 @@ public class Student extends User {
     @Column(name = "academic_year", nullable = false)
     private String academicYear;
 
+    @Column
+    private String college;
+
     @PrePersist
     public void prePersist() {
         super.setRole(Role.STUDENT);
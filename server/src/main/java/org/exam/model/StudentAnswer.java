@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.exam.id.BlockId;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -13,11 +14,13 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "student_answers")
+@Table(name = "student_answers", indexes = {
+        @Index(name = "idx_student_answers_attempt_question", columnList = "attempt_id, question_id")
+})
 public class StudentAnswer {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @BlockId
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,222 @@
+package org.exam.proctoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.exam.cache.AttemptSession;
+import org.exam.cache.AttemptSessionRegistry;
+import org.exam.model.ExamAttempt;
+import org.exam.service.ExamLiveCounters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Real-time focus-loss violation scoring.
+ *
+ * Every running attempt has a {@link ViolationWindow} over the last
+ * {@code exam.proctoring.window-seconds}. Its score is the weighted count of events
+ * by type plus the weighted seconds spent away, and maps to a violation level
+ * through configurable thresholds. The first time an attempt reaches the flag level,
+ * or a higher level after that, the attempt is flagged for admin review: the level
+ * is written to exam_attempts by a background writer. Nothing is read back from
+ * focus_loss_events.
+ */
+@Component
+public class ViolationScorer {
+
+    private static final Logger log = LoggerFactory.getLogger(ViolationScorer.class);
+
+    // Distinct event types tracked separately; further types share the last slot
+    private static final int TYPE_SLOTS = 8;
+
+    private static final String FLAG_SQL =
+            "UPDATE exam_attempts SET violation_level = ?, flagged_at = COALESCE(flagged_at, ?) WHERE id = ?";
+
+    @Autowired
+    private AttemptSessionRegistry attemptSessionRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ExamLiveCounters examLiveCounters;
+
+    @Value("${exam.proctoring.window-seconds:300}")
+    private int windowSeconds;
+
+    @Value("${exam.proctoring.bucket-seconds:10}")
+    private int bucketSeconds;
+
+    // Comma-separated TYPE:weight pairs, e.g. TAB_SWITCH:2,WINDOW_BLUR:1
+    @Value("${exam.proctoring.event-weights:}")
+    private String eventWeights;
+
+    @Value("${exam.proctoring.default-event-weight:1.0}")
+    private double defaultEventWeight;
+
+    @Value("${exam.proctoring.duration-weight:0.1}")
+    private double durationWeight;
+
+    @Value("${exam.proctoring.thresholds.medium:3}")
+    private double mediumThreshold;
+
+    @Value("${exam.proctoring.thresholds.high:6}")
+    private double highThreshold;
+
+    @Value("${exam.proctoring.thresholds.critical:10}")
+    private double criticalThreshold;
+
+    @Value("${exam.proctoring.flag-level:HIGH}")
+    private ExamAttempt.ViolationLevel flagLevel;
+
+    private final Map<Long, ViolationWindow> windows = new ConcurrentHashMap<>();
+
+    private final Map<String, Integer> typeSlots = new ConcurrentHashMap<>();
+
+    private final double[] typeWeights = new double[TYPE_SLOTS];
+
+    private final Queue<Flag> pendingFlags = new ConcurrentLinkedQueue<>();
+
+    private Counter flaggedCounter;
+
+    @PostConstruct
+    public void init() {
+        Arrays.fill(typeWeights, defaultEventWeight);
+
+        // Weighted types get their slots up front; types first seen later use the default weight
+        for (String pair : eventWeights.split(",")) {
+            int colon = pair.indexOf(':');
+            if (colon > 0 && typeSlots.size() < TYPE_SLOTS - 1) {
+                int slot = typeSlots.size();
+                typeSlots.put(pair.substring(0, colon).trim(), slot);
+                typeWeights[slot] = Double.parseDouble(pair.substring(colon + 1).trim());
+            }
+        }
+
+        flaggedCounter = Counter.builder("exam.proctoring.flagged")
+                .description("Times an attempt was flagged for review or raised to a higher violation level")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record a focus-loss event and evaluate the attempt's violation level
+     *
+     * @return the violation level over the current window
+     */
+    public ExamAttempt.ViolationLevel record(AttemptSession session, String eventType, int durationSeconds) {
+        long now = System.currentTimeMillis();
+        int slot = slotOf(eventType);
+        ViolationWindow window = windows.computeIfAbsent(session.getAttemptId(),
+                id -> new ViolationWindow(Math.max(1, windowSeconds / bucketSeconds), bucketSeconds * 1000L, TYPE_SLOTS));
+
+        ExamAttempt.ViolationLevel level;
+        boolean firstFlag;
+        boolean raised;
+        synchronized (window) {
+            window.record(now, slot, Math.max(0, durationSeconds));
+            level = levelOf(window.score(now, typeWeights, durationWeight));
+            firstFlag = !window.isFlagged();
+            raised = level.compareTo(flagLevel) >= 0 && window.raisePeak(level.ordinal());
+        }
+
+        if (raised) {
+            pendingFlags.offer(new Flag(session.getAttemptId(), level, now));
+            flaggedCounter.increment();
+            if (firstFlag) {
+                examLiveCounters.attemptFlagged(session.getExamId());
+            }
+        }
+        return level;
+    }
+
+    /**
+     * Write pending flags and drop the windows of attempts that are no longer running
+     */
+    @Scheduled(fixedDelayString = "${exam.proctoring.flush-interval-ms:2000}")
+    public void flush() {
+        // One row per attempt: its highest level, flagged at the time it was first flagged
+        Map<Long, Flag> flags = new HashMap<>();
+        Flag flag;
+        while ((flag = pendingFlags.poll()) != null) {
+            flags.merge(flag.attemptId(), flag, Flag::merge);
+        }
+
+        if (!flags.isEmpty()) {
+            List<Object[]> batch = new ArrayList<>();
+            for (Flag f : flags.values()) {
+                Timestamp flaggedAt = Timestamp.valueOf(
+                        LocalDateTime.ofInstant(Instant.ofEpochMilli(f.flaggedAtMillis()), ZoneId.systemDefault()));
+                batch.add(new Object[]{f.level().name(), flaggedAt, f.attemptId()});
+            }
+            try {
+                jdbcTemplate.batchUpdate(FLAG_SQL, batch);
+            } catch (RuntimeException e) {
+                // The windows already hold these peaks and will not raise them again, so retry
+                log.error("Failed to flag {} attempts for review, will retry", batch.size(), e);
+                pendingFlags.addAll(flags.values());
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        windows.keySet().removeIf(attemptId -> {
+            AttemptSession session = attemptSessionRegistry.getIfPresent(attemptId);
+            return session == null || session.isCompleted() || session.isExpired(now);
+        });
+    }
+
+    private ExamAttempt.ViolationLevel levelOf(double score) {
+        if (score >= criticalThreshold) {
+            return ExamAttempt.ViolationLevel.CRITICAL;
+        }
+        if (score >= highThreshold) {
+            return ExamAttempt.ViolationLevel.HIGH;
+        }
+        if (score >= mediumThreshold) {
+            return ExamAttempt.ViolationLevel.MEDIUM;
+        }
+        return ExamAttempt.ViolationLevel.LOW;
+    }
+
+    private int slotOf(String eventType) {
+        Integer slot = typeSlots.get(eventType);
+        if (slot != null) {
+            return slot;
+        }
+        synchronized (typeSlots) {
+            // Types beyond the tracked ones share the last slot
+            if (typeSlots.size() >= TYPE_SLOTS - 1 && !typeSlots.containsKey(eventType)) {
+                return TYPE_SLOTS - 1;
+            }
+            return typeSlots.computeIfAbsent(eventType, type -> typeSlots.size());
+        }
+    }
+
+    private record Flag(long attemptId, ExamAttempt.ViolationLevel level, long flaggedAtMillis) {
+
+        Flag merge(Flag other) {
+            return new Flag(attemptId, level.compareTo(other.level) >= 0 ? level : other.level,
+                    Math.min(flaggedAtMillis, other.flaggedAtMillis));
+        }
+    }
+}
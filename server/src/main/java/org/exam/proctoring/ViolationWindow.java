@@ -0,0 +1,94 @@
+package org.exam.proctoring;
+
+/**
+ * Sliding-window counters of the focus-loss events of one attempt.
+ *
+ * The window is a ring of fixed-width time buckets; each bucket holds an event count
+ * per event type slot and the seconds spent away. Running totals over the whole ring
+ * are kept alongside, so recording an event and reading the totals are O(1); buckets
+ * that slide out of the window are subtracted as the ring advances.
+ *
+ * Not thread-safe: callers synchronize on the window.
+ */
+final class ViolationWindow {
+
+    private final long bucketMillis;
+    private final int[][] counts;
+    private final long[] durations;
+    private final int[] totalCounts;
+    private long totalDuration;
+
+    // Absolute number of the most recent bucket
+    private long currentBucket = Long.MIN_VALUE;
+
+    // Highest level reported for this attempt
+    private int peakLevel = -1;
+
+    ViolationWindow(int buckets, long bucketMillis, int typeSlots) {
+        this.bucketMillis = bucketMillis;
+        this.counts = new int[buckets][typeSlots];
+        this.durations = new long[buckets];
+        this.totalCounts = new int[typeSlots];
+    }
+
+    void record(long nowMillis, int typeSlot, int durationSeconds) {
+        advance(nowMillis);
+        int index = (int) Math.floorMod(currentBucket, (long) counts.length);
+        counts[index][typeSlot]++;
+        totalCounts[typeSlot]++;
+        durations[index] += durationSeconds;
+        totalDuration += durationSeconds;
+    }
+
+    /**
+     * Weighted score of the events in the window ending now
+     */
+    double score(long nowMillis, double[] typeWeights, double durationWeight) {
+        advance(nowMillis);
+        double score = totalDuration * durationWeight;
+        for (int slot = 0; slot < totalCounts.length; slot++) {
+            score += totalCounts[slot] * typeWeights[slot];
+        }
+        return score;
+    }
+
+    boolean isFlagged() {
+        return peakLevel >= 0;
+    }
+
+    /**
+     * @return true if the level is higher than any level reported before
+     */
+    boolean raisePeak(int level) {
+        if (level <= peakLevel) {
+            return false;
+        }
+        peakLevel = level;
+        return true;
+    }
+
+    private void advance(long nowMillis) {
+        long bucket = Math.floorDiv(nowMillis, bucketMillis);
+        if (currentBucket == Long.MIN_VALUE) {
+            currentBucket = bucket;
+            return;
+        }
+        if (bucket <= currentBucket) {
+            return;
+        }
+
+        // Clear the buckets that slid out, at most one full revolution
+        long steps = Math.min(bucket - currentBucket, counts.length);
+        for (long step = 1; step <= steps; step++) {
+            int index = (int) Math.floorMod(currentBucket + step, (long) counts.length);
+            int[] bucketCounts = counts[index];
+            for (int slot = 0; slot < bucketCounts.length; slot++) {
+                totalCounts[slot] -= bucketCounts[slot];
+                bucketCounts[slot] = 0;
+            }
+            totalDuration -= durations[index];
+            durations[index] = 0;
+        }
+        currentBucket = bucket;
+    }
+}
@@ -0,0 +1,302 @@
+package org.exam.report;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar, in-memory copy of the completed results of one exam.
+ *
+ * Each completed attempt is a row; the college, branch and academic year of its
+ * student are dictionary-encoded into int columns and the section totals are
+ * stored as hundredths of a mark in int columns. A filter is resolved against the
+ * dictionaries once and then evaluated with integer comparisons in a single pass
+ * over the columns, so any combination of filters and passing marks is answered
+ * without touching the database.
+ *
+ * Immutable once built.
+ */
+public final class ResultCube {
+
+    public enum Dimension {
+        COLLEGE, BRANCH, ACADEMIC_YEAR
+    }
+
+    private static final int ANY = -1;
+    private static final int NO_MATCH = -2;
+
+    private final LocalDateTime builtAt;
+    private final int size;
+
+    private final String[][] dictionaries;
+    private final int[][] dimensions;
+
+    private final int[] aptitude;
+    private final int[] reasoning;
+    private final int[] coding;
+    private final long[] completedAt;
+
+    private ResultCube(LocalDateTime builtAt, int size, String[][] dictionaries, int[][] dimensions,
+                       int[] aptitude, int[] reasoning, int[] coding, long[] completedAt) {
+        this.builtAt = builtAt;
+        this.size = size;
+        this.dictionaries = dictionaries;
+        this.dimensions = dimensions;
+        this.aptitude = aptitude;
+        this.reasoning = reasoning;
+        this.coding = coding;
+        this.completedAt = completedAt;
+    }
+
+    public LocalDateTime getBuiltAt() {
+        return builtAt;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The distinct values of a dimension, in first-seen order
+     */
+    public List<String> values(Dimension dimension) {
+        return List.of(dictionaries[dimension.ordinal()]);
+    }
+
+    /**
+     * Aggregate the rows matching a filter
+     */
+    public Summary aggregate(Filter filter, PassingMarks passingMarks) {
+        Accumulator accumulator = new Accumulator(passingMarks);
+        int[] codes = resolve(filter);
+        if (codes == null) {
+            return accumulator.summary();
+        }
+
+        long from = filter.from() == null ? Long.MIN_VALUE : epochMillis(filter.from());
+        long to = filter.to() == null ? Long.MAX_VALUE : epochMillis(filter.to());
+        for (int row = 0; row < size; row++) {
+            if (matches(row, codes, from, to)) {
+                accumulator.add(row);
+            }
+        }
+        return accumulator.summary();
+    }
+
+    /**
+     * Aggregate the rows matching a filter, grouped by the values of a dimension
+     */
+    public Map<String, Summary> aggregate(Filter filter, PassingMarks passingMarks, Dimension groupBy) {
+        Map<String, Summary> result = new LinkedHashMap<>();
+        int[] codes = resolve(filter);
+        if (codes == null) {
+            return result;
+        }
+
+        String[] groups = dictionaries[groupBy.ordinal()];
+        int[] groupColumn = dimensions[groupBy.ordinal()];
+        Accumulator[] accumulators = new Accumulator[groups.length];
+
+        long from = filter.from() == null ? Long.MIN_VALUE : epochMillis(filter.from());
+        long to = filter.to() == null ? Long.MAX_VALUE : epochMillis(filter.to());
+        for (int row = 0; row < size; row++) {
+            if (matches(row, codes, from, to)) {
+                int group = groupColumn[row];
+                if (accumulators[group] == null) {
+                    accumulators[group] = new Accumulator(passingMarks);
+                }
+                accumulators[group].add(row);
+            }
+        }
+
+        for (int group = 0; group < groups.length; group++) {
+            if (accumulators[group] != null) {
+                result.put(groups[group], accumulators[group].summary());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the dictionary code to match per dimension (ANY for no filter), or null
+     * if a filter value does not occur at all
+     */
+    private int[] resolve(Filter filter) {
+        int[] codes = {
+                codeOf(Dimension.COLLEGE, filter.college()),
+                codeOf(Dimension.BRANCH, filter.branch()),
+                codeOf(Dimension.ACADEMIC_YEAR, filter.academicYear())
+        };
+        for (int code : codes) {
+            if (code == NO_MATCH) {
+                return null;
+            }
+        }
+        return codes;
+    }
+
+    private int codeOf(Dimension dimension, String value) {
+        if (value == null || value.isBlank()) {
+            return ANY;
+        }
+        String[] dictionary = dictionaries[dimension.ordinal()];
+        for (int code = 0; code < dictionary.length; code++) {
+            if (value.equalsIgnoreCase(dictionary[code])) {
+                return code;
+            }
+        }
+        return NO_MATCH;
+    }
+
+    private boolean matches(int row, int[] codes, long from, long to) {
+        for (int d = 0; d < codes.length; d++) {
+            if (codes[d] != ANY && dimensions[d][row] != codes[d]) {
+                return false;
+            }
+        }
+        return completedAt[row] >= from && completedAt[row] <= to;
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    /**
+     * Filter on the result rows; null fields match everything
+     */
+    public record Filter(String college, String branch, String academicYear,
+                         LocalDateTime from, LocalDateTime to) {
+    }
+
+    /**
+     * Passing marks per section; a null mark is always reached
+     */
+    public record PassingMarks(Integer aptitude, Integer reasoning, Integer coding) {
+    }
+
+    public record Summary(int totalStudents, int passedStudents, int failedStudents,
+                          double averageAptitude, double averageReasoning, double averageCoding,
+                          double maxAptitude, double maxReasoning, double maxCoding) {
+    }
+
+    private final class Accumulator {
+        private final int aptitudeThreshold;
+        private final int reasoningThreshold;
+        private final int codingThreshold;
+
+        private int count;
+        private int passed;
+        private long aptitudeSum;
+        private long reasoningSum;
+        private long codingSum;
+        private int aptitudeMax;
+        private int reasoningMax;
+        private int codingMax;
+
+        Accumulator(PassingMarks passingMarks) {
+            aptitudeThreshold = hundredths(passingMarks.aptitude());
+            reasoningThreshold = hundredths(passingMarks.reasoning());
+            codingThreshold = hundredths(passingMarks.coding());
+        }
+
+        void add(int row) {
+            count++;
+            if (aptitude[row] >= aptitudeThreshold && reasoning[row] >= reasoningThreshold
+                    && coding[row] >= codingThreshold) {
+                passed++;
+            }
+            aptitudeSum += aptitude[row];
+            reasoningSum += reasoning[row];
+            codingSum += coding[row];
+            aptitudeMax = Math.max(aptitudeMax, aptitude[row]);
+            reasoningMax = Math.max(reasoningMax, reasoning[row]);
+            codingMax = Math.max(codingMax, coding[row]);
+        }
+
+        Summary summary() {
+            return new Summary(count, passed, count - passed,
+                    average(aptitudeSum), average(reasoningSum), average(codingSum),
+                    aptitudeMax / 100.0, reasoningMax / 100.0, codingMax / 100.0);
+        }
+
+        private double average(long sum) {
+            return count == 0 ? 0 : Math.round((double) sum / count) / 100.0;
+        }
+
+        private int hundredths(Integer marks) {
+            return marks == null ? Integer.MIN_VALUE : marks * 100;
+        }
+    }
+
+    /**
+     * Collects rows in scan order and encodes them into a cube
+     */
+    public static final class Builder {
+
+        private final List<Map<String, Integer>> codes = List.of(new HashMap<>(), new HashMap<>(), new HashMap<>());
+        private final List<List<String>> dictionaries = List.of(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+
+        private int size;
+        private int[][] dimensions = new int[3][16];
+        private int[] aptitude = new int[16];
+        private int[] reasoning = new int[16];
+        private int[] coding = new int[16];
+        private long[] completedAt = new long[16];
+
+        /**
+         * @param aptitudeScore  section total in hundredths of a mark
+         * @param completedAt    completion time of the attempt
+         */
+        public Builder add(String college, String branch, String academicYear,
+                           int aptitudeScore, int reasoningScore, int codingScore, LocalDateTime completedAt) {
+            if (size == aptitude.length) {
+                grow();
+            }
+            dimensions[0][size] = encode(Dimension.COLLEGE, college);
+            dimensions[1][size] = encode(Dimension.BRANCH, branch);
+            dimensions[2][size] = encode(Dimension.ACADEMIC_YEAR, academicYear);
+            aptitude[size] = aptitudeScore;
+            reasoning[size] = reasoningScore;
+            coding[size] = codingScore;
+            this.completedAt[size] = completedAt == null ? 0 : epochMillis(completedAt);
+            size++;
+            return this;
+        }
+
+        public ResultCube build() {
+            String[][] dictionaryArrays = new String[3][];
+            int[][] dimensionArrays = new int[3][];
+            for (int d = 0; d < 3; d++) {
+                dictionaryArrays[d] = dictionaries.get(d).toArray(String[]::new);
+                dimensionArrays[d] = Arrays.copyOf(dimensions[d], size);
+            }
+            return new ResultCube(LocalDateTime.now(), size, dictionaryArrays, dimensionArrays,
+                    Arrays.copyOf(aptitude, size), Arrays.copyOf(reasoning, size),
+                    Arrays.copyOf(coding, size), Arrays.copyOf(completedAt, size));
+        }
+
+        private int encode(Dimension dimension, String value) {
+            String key = value == null ? "" : value;
+            return codes.get(dimension.ordinal()).computeIfAbsent(key, k -> {
+                dictionaries.get(dimension.ordinal()).add(k);
+                return dictionaries.get(dimension.ordinal()).size() - 1;
+            });
+        }
+
+        private void grow() {
+            int capacity = aptitude.length * 2;
+            for (int d = 0; d < 3; d++) {
+                dimensions[d] = Arrays.copyOf(dimensions[d], capacity);
+            }
+            aptitude = Arrays.copyOf(aptitude, capacity);
+            reasoning = Arrays.copyOf(reasoning, capacity);
+            coding = Arrays.copyOf(coding, capacity);
+            completedAt = Arrays.copyOf(completedAt, capacity);
+        }
+    }
+}
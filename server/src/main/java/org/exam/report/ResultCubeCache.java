@@ -0,0 +1,91 @@
+package org.exam.report;
+
+import org.exam.event.AttemptsGradedEvent;
+import org.exam.exception.ResourceNotFoundException;
+import org.exam.repository.ExamRepository;
+import org.exam.repository.ReportResultRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of result cubes, one per exam.
+ *
+ * A cube is built with one scan of the exam's completed attempts on first use.
+ * Grading attempts of the exam marks its cube stale, and a stale cube is rebuilt
+ * on the next query once it is {@code exam.results.cube-refresh-seconds} old, so
+ * a steady stream of gradings during an exam costs at most one scan per interval.
+ * Until then queries are answered from the older cube, as of its build time.
+ */
+@Component
+public class ResultCubeCache {
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private ReportResultRepository reportResultRepository;
+
+    @Value("${exam.results.cube-refresh-seconds:30}")
+    private long refreshSeconds;
+
+    private final Map<Long, ResultCube> cubes = new ConcurrentHashMap<>();
+
+    // Exams with attempts graded since their cube was built
+    private final Set<Long> stale = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Get the result cube of an exam, building it if needed
+     *
+     * @param examId the ID of the exam
+     * @return the result cube
+     * @throws ResourceNotFoundException if exam not found
+     */
+    public ResultCube get(Long examId) {
+        ResultCube cube = cubes.get(examId);
+        if (isCurrent(examId, cube)) {
+            return cube;
+        }
+        return cubes.compute(examId, (id, current) -> {
+            if (isCurrent(id, current)) {
+                return current;
+            }
+            // Cleared first, so gradings during the scan mark the new cube stale again
+            stale.remove(id);
+            return build(id);
+        });
+    }
+
+    public void evict(Long examId) {
+        cubes.remove(examId);
+        stale.remove(examId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAttemptsGraded(AttemptsGradedEvent event) {
+        // Marked even without a cube, as one may be in the middle of its first build
+        stale.addAll(reportResultRepository.findExamIdsOfAttempts(event.attemptIds()));
+    }
+
+    private boolean isCurrent(Long examId, ResultCube cube) {
+        if (cube == null) {
+            return false;
+        }
+        return !stale.contains(examId)
+                || Duration.between(cube.getBuiltAt(), LocalDateTime.now()).getSeconds() < refreshSeconds;
+    }
+
+    private ResultCube build(Long examId) {
+        if (!examRepository.existsById(examId)) {
+            throw new ResourceNotFoundException("Exam not found with id: " + examId);
+        }
+        return reportResultRepository.buildCube(examId);
+    }
+}
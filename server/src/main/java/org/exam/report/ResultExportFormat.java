@@ -0,0 +1,44 @@
+package org.exam.report;
+
+/**
+ * File formats of the exam result export.
+ */
+public enum ResultExportFormat {
+    CSV("text/csv; charset=UTF-8", "csv"),
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+
+    private final String contentType;
+    private final String extension;
+
+    ResultExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    /**
+     * @throws IllegalStateException if the format is not supported
+     */
+    public static ResultExportFormat from(String format) {
+        for (ResultExportFormat value : values()) {
+            if (value.extension.equalsIgnoreCase(format)) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Unsupported export format: " + format);
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * xlsx files are zip archives already and gain nothing from gzip
+     */
+    public boolean isCompressible() {
+        return this == CSV;
+    }
+}
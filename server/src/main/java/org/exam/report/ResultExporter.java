@@ -0,0 +1,115 @@
+package org.exam.report;
+
+import org.exam.cache.ExamContentCache;
+import org.exam.cache.ExamSnapshot;
+import org.exam.exception.ResourceNotFoundException;
+import org.exam.grading.SectionScores;
+import org.exam.model.Section;
+import org.exam.repository.ReportResultRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the completed results of an exam as CSV or xlsx.
+ *
+ * Rows go straight from a forward-only JDBC cursor to the response stream, so an
+ * export holds one row in memory whatever the size of the cohort.
+ */
+@Component
+public class ResultExporter {
+
+    private static final String[] COLUMNS = {
+            "Student ID", "Name", "Email", "College", "Branch", "Academic Year",
+            "Aptitude Score", "Reasoning Score", "Coding Score", "Total Score", "Result", "Completed At"
+    };
+
+    @Autowired
+    private ExamContentCache examContentCache;
+
+    @Autowired
+    private ReportResultRepository reportResultRepository;
+
+    /**
+     * Prepare the export of an exam's results; the exam is checked now, the rows are
+     * read when the body is written
+     *
+     * @param examId the ID of the exam
+     * @param college only students of this college, or all students if null
+     * @param format the file format
+     * @param gzip whether to gzip the output
+     * @return the response body
+     * @throws ResourceNotFoundException if exam not found
+     */
+    public StreamingResponseBody export(Long examId, String college, ResultExportFormat format, boolean gzip) {
+        ExamSnapshot exam = examContentCache.get(examId);
+        Integer aptitudePassingMarks = exam.getPassingMarks(Section.SectionType.APTITUDE);
+        Integer reasoningPassingMarks = exam.getPassingMarks(Section.SectionType.REASONING);
+        Integer codingPassingMarks = exam.getPassingMarks(Section.SectionType.CODING);
+
+        return outputStream -> {
+            OutputStream out = gzip ? new GZIPOutputStream(outputStream, 16 * 1024) : outputStream;
+            TableWriter writer = format == ResultExportFormat.XLSX
+                    ? new XlsxTableWriter(out, sheetName(exam.getTitle()))
+                    : new CsvTableWriter(out);
+
+            writer.writeHeader(COLUMNS);
+            try {
+                reportResultRepository.streamExportRows(examId, college, rs -> {
+                    SectionScores scores = new SectionScores(
+                            rs.getBigDecimal("aptitude_score"),
+                            rs.getBigDecimal("reasoning_score"),
+                            rs.getBigDecimal("coding_score"));
+                    boolean passed = scores.passes(aptitudePassingMarks, reasoningPassingMarks, codingPassingMarks);
+                    BigDecimal total = scores.aptitude().add(scores.reasoning()).add(scores.coding());
+                    Timestamp endTime = rs.getTimestamp("end_time");
+
+                    try {
+                        writer.writeRow(
+                                rs.getString("student_id"),
+                                rs.getString("full_name"),
+                                rs.getString("email"),
+                                rs.getString("college"),
+                                rs.getString("branch"),
+                                rs.getString("academic_year"),
+                                scores.aptitude(),
+                                scores.reasoning(),
+                                scores.coding(),
+                                total,
+                                passed ? "PASS" : "FAIL",
+                                endTime == null ? null
+                                        : endTime.toLocalDateTime().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            writer.finish();
+            if (out instanceof GZIPOutputStream gzipOut) {
+                gzipOut.finish();
+            }
+        };
+    }
+
+    /**
+     * A worksheet name is at most 31 characters, without []:*?/\
+     */
+    private static String sheetName(String title) {
+        String name = title == null ? "" : title.replaceAll("[\\[\\]:*?/\\\\]", " ").trim();
+        if (name.isEmpty()) {
+            return "Results";
+        }
+        return name.length() > 31 ? name.substring(0, 31) : name;
+    }
+}
@@ -0,0 +1,21 @@
+package org.exam.report;
+
+import java.io.IOException;
+
+/**
+ * Writes a table row by row to an output stream, without holding earlier rows.
+ *
+ * Values are strings, numbers (written as numeric cells where the format has them)
+ * or null for an empty cell.
+ */
+public interface TableWriter {
+
+    void writeHeader(String... columns) throws IOException;
+
+    void writeRow(Object... values) throws IOException;
+
+    /**
+     * Write whatever the format needs after the last row and flush; does not close the stream
+     */
+    void finish() throws IOException;
+}
@@ -3,16 +3,93 @@ package org.exam.repository;
 import org.exam.model.ExamAttempt;
 import org.exam.model.Student;
 import org.exam.model.Exam;
+import org.exam.repository.projection.AttemptSessionView;
+import org.exam.repository.projection.ExamAttemptCount;
+import org.exam.repository.projection.FlaggedAttemptView;
+import org.exam.repository.projection.PastExamView;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ExamAttemptRepository extends JpaRepository<ExamAttempt, Long> {
+
+    // Completed attempts of a student, newest first, with the passing marks of each section type
+    String PAST_EXAMS_QUERY =
+            "select new org.exam.repository.projection.PastExamView(" +
+            "a.id, e.id, e.title, a.startTime, a.endTime, a.aptitudeScore, a.reasoningScore, a.codingScore, " +
+            "apt.passingMarks, rea.passingMarks, cod.passingMarks) " +
+            "from ExamAttempt a join a.exam e " +
+            "left join Section apt on apt.exam = e and apt.sectionType = org.exam.model.Section.SectionType.APTITUDE " +
+            "left join Section rea on rea.exam = e and rea.sectionType = org.exam.model.Section.SectionType.REASONING " +
+            "left join Section cod on cod.exam = e and cod.sectionType = org.exam.model.Section.SectionType.CODING " +
+            "where a.student.id = :studentId and a.isCompleted = true ";
+
+    String PAST_EXAMS_ORDER = "order by a.endTime desc, a.id desc";
+
     List<ExamAttempt> findByStudent(Student student);
     List<ExamAttempt> findByExam(Exam exam);
     Optional<ExamAttempt> findByExamAndStudentAndIsCompletedFalse(Exam exam, Student student);
     boolean existsByExamAndStudent(Exam exam, Student student);
+    boolean existsByExamIdAndStudentId(Long examId, Long studentId);
+
+    @Query("select new org.exam.repository.projection.AttemptSessionView(" +
+           "a.id, a.student.id, e.id, a.startTime, e.durationMinutes, a.isCompleted) " +
+           "from ExamAttempt a join a.exam e where a.id = :attemptId")
+    Optional<AttemptSessionView> findSessionView(@Param("attemptId") Long attemptId);
+
+    @Query("select new org.exam.repository.projection.AttemptSessionView(" +
+           "a.id, a.student.id, e.id, a.startTime, e.durationMinutes, a.isCompleted) " +
+           "from ExamAttempt a join a.exam e where a.isCompleted = false")
+    List<AttemptSessionView> findIncompleteSessionViews();
+
+    @Query("select new org.exam.repository.projection.ExamAttemptCount(a.exam.id, count(a)) " +
+           "from ExamAttempt a where a.id in :attemptIds group by a.exam.id")
+    List<ExamAttemptCount> countByExam(@Param("attemptIds") List<Long> attemptIds);
+
+    @Query("select new org.exam.repository.projection.FlaggedAttemptView(" +
+           "a.id, s.studentId, s.fullName, s.email, a.violationLevel, a.flaggedAt, a.isCompleted) " +
+           "from ExamAttempt a join a.student s " +
+           "where a.exam.id = :examId and a.violationLevel is not null order by a.flaggedAt")
+    List<FlaggedAttemptView> findFlaggedByExamId(@Param("examId") Long examId);
+
+    @Query(PAST_EXAMS_QUERY + PAST_EXAMS_ORDER)
+    List<PastExamView> findPastExams(@Param("studentId") Long studentId, Limit limit);
+
+    /**
+     * The page after the attempt ({@code endTime}, {@code attemptId}): a seek on the
+     * student's index rather than an offset, so every page costs the same
+     */
+    @Query(PAST_EXAMS_QUERY +
+           "and (a.endTime < :endTime or (a.endTime = :endTime and a.id < :attemptId)) " + PAST_EXAMS_ORDER)
+    List<PastExamView> findPastExamsBefore(@Param("studentId") Long studentId,
+                                           @Param("endTime") LocalDateTime endTime,
+                                           @Param("attemptId") Long attemptId,
+                                           Limit limit);
+
+    @Modifying
+    @Query("update ExamAttempt a set a.isCompleted = true, a.endTime = :endTime " +
+           "where a.id = :attemptId and a.isCompleted = false")
+    int markCompleted(@Param("attemptId") Long attemptId, @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * Lock the attempts that are still running, until the end of the transaction
+     *
+     * @return the IDs of the given attempts that are not completed
+     */
+    @Query(value = "SELECT id FROM exam_attempts WHERE id IN (:attemptIds) AND is_completed = false FOR UPDATE",
+           nativeQuery = true)
+    List<Long> lockIncomplete(@Param("attemptIds") List<Long> attemptIds);
+
+    @Modifying
+    @Query("update ExamAttempt a set a.isCompleted = true, a.endTime = :endTime " +
+           "where a.id in :attemptIds and a.isCompleted = false")
+    int markAllCompleted(@Param("attemptIds") List<Long> attemptIds, @Param("endTime") LocalDateTime endTime);
 }
@@ -2,8 +2,19 @@ package org.exam.repository;
 
 import org.exam.model.ExamReport;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface ExamReportRepository extends JpaRepository<ExamReport, Long> {
+    @Query("select r from ExamReport r join fetch r.exam where r.id = :reportId")
+    Optional<ExamReport> findWithExamById(@Param("reportId") Long reportId);
+
+    @Query("select r.id from ExamReport r where r.status in :statuses order by r.id")
+    List<Long> findIdsByStatusIn(@Param("statuses") Collection<ExamReport.Status> statuses);
 }
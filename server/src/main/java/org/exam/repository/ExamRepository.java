@@ -1,14 +1,36 @@
 package org.exam.repository;
 
 import org.exam.model.Exam;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ExamRepository extends JpaRepository<Exam, Long> {
     List<Exam> findByIsActiveTrueAndStartTimeBefore(LocalDateTime now);
-    List<Exam> findByIsActiveTrueAndEndTimeAfter(LocalDateTime now);
+
+    @EntityGraph(attributePaths = "sections")
+    List<Exam> findByIsActiveTrueAndEndTimeAfterOrderByStartTimeAsc(LocalDateTime now);
+
+    @EntityGraph(attributePaths = "sections")
+    Optional<Exam> findWithSectionsById(Long id);
+
+    /**
+     * One page of exam ids. Paging is done on ids alone, since a page of exams
+     * fetched together with their sections would be paged in memory.
+     */
+    @Query(value = "SELECT e.id FROM Exam e", countQuery = "SELECT COUNT(e) FROM Exam e")
+    Page<Long> findIds(Pageable pageable);
+
+    @EntityGraph(attributePaths = "sections")
+    List<Exam> findWithSectionsByIdIn(Collection<Long> ids, Sort sort);
 }
@@ -3,6 +3,8 @@ package org.exam.repository;
 import org.exam.model.Question;
 import org.exam.model.Section;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,4 +13,7 @@ import java.util.List;
 public interface QuestionRepository extends JpaRepository<Question, Long> {
     List<Question> findBySection(Section section);
     long countBySection(Section section);
+
+    @Query("select distinct q from Question q left join fetch q.options where q.section.exam.id = :examId")
+    List<Question> findWithOptionsByExamId(@Param("examId") Long examId);
 }
@@ -0,0 +1,154 @@
+package org.exam.repository;
+
+import jakarta.annotation.PostConstruct;
+import org.exam.report.ResultCube;
+import org.exam.repository.projection.ResultStatistics;
+import org.exam.repository.projection.StudentResultRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Flat, single-query reads of exam results for reports.
+ *
+ * Section totals are kept on exam_attempts as answers are graded, so a result row is
+ * one join of attempts, students and users, and the pass/fail statistics are one
+ * aggregate over the same rows. Results can be narrowed to the students of a college.
+ */
+@Repository
+public class ReportResultRepository {
+
+    private static final String RESULTS_FROM =
+            "FROM exam_attempts a " +
+            "JOIN students s ON s.id = a.student_id " +
+            "JOIN users u ON u.id = s.id " +
+            "WHERE a.exam_id = :examId AND a.is_completed = true ";
+
+    private static final String COLLEGE_FILTER = "AND s.college = :college ";
+
+    private static final String ROWS_SQL =
+            "SELECT a.id, s.student_id, u.full_name, s.branch, s.academic_year, " +
+            "a.aptitude_score, a.reasoning_score, a.coding_score " + RESULTS_FROM;
+
+    private static final String STATISTICS_SQL =
+            "SELECT COUNT(*) AS total, " +
+            "COALESCE(SUM(CASE WHEN COALESCE(a.aptitude_score, 0) >= :aptitude " +
+            "AND COALESCE(a.reasoning_score, 0) >= :reasoning " +
+            "AND COALESCE(a.coding_score, 0) >= :coding THEN 1 ELSE 0 END), 0) AS passed " + RESULTS_FROM;
+
+    private static final String CUBE_SQL =
+            "SELECT s.college, s.branch, s.academic_year, " +
+            "a.aptitude_score, a.reasoning_score, a.coding_score, a.end_time " + RESULTS_FROM;
+
+    private static final String EXPORT_SQL =
+            "SELECT s.student_id, u.full_name, u.email, s.college, s.branch, s.academic_year, " +
+            "a.aptitude_score, a.reasoning_score, a.coding_score, a.end_time " + RESULTS_FROM;
+
+    private static final String EXAMS_OF_ATTEMPTS_SQL =
+            "SELECT DISTINCT exam_id FROM exam_attempts WHERE id IN (:attemptIds)";
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    // Forward-only, read-only statements with Integer.MIN_VALUE fetch size make the
+    // MySQL driver stream rows instead of buffering the whole result set
+    private NamedParameterJdbcTemplate streamingJdbcTemplate;
+
+    @PostConstruct
+    public void init() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        streamingJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * One page of result rows with attempt id greater than afterAttemptId, in attempt order
+     *
+     * @param college only students of this college, or all students if null
+     */
+    public List<StudentResultRow> findPage(Long examId, String college, long afterAttemptId, int limit) {
+        MapSqlParameterSource params = params(examId, college)
+                .addValue("afterId", afterAttemptId)
+                .addValue("limit", limit);
+
+        return namedParameterJdbcTemplate.query(
+                ROWS_SQL + collegeFilter(college) + "AND a.id > :afterId ORDER BY a.id LIMIT :limit",
+                params,
+                (rs, rowNum) -> new StudentResultRow(
+                        rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5),
+                        rs.getBigDecimal(6), rs.getBigDecimal(7), rs.getBigDecimal(8)));
+    }
+
+    /**
+     * Count the students who passed and failed, against the given passing marks
+     *
+     * @param college only students of this college, or all students if null
+     */
+    public ResultStatistics statistics(Long examId, String college,
+                                       Integer aptitudePassingMarks,
+                                       Integer reasoningPassingMarks,
+                                       Integer codingPassingMarks) {
+        // A missing passing mark is always reached, as scores are never negative
+        MapSqlParameterSource params = params(examId, college)
+                .addValue("aptitude", aptitudePassingMarks == null ? 0 : aptitudePassingMarks)
+                .addValue("reasoning", reasoningPassingMarks == null ? 0 : reasoningPassingMarks)
+                .addValue("coding", codingPassingMarks == null ? 0 : codingPassingMarks);
+
+        return namedParameterJdbcTemplate.queryForObject(STATISTICS_SQL + collegeFilter(college), params,
+                (rs, rowNum) -> new ResultStatistics(rs.getLong("total"), rs.getLong("passed")));
+    }
+
+    /**
+     * Stream the export rows of an exam, in attempt order, from a forward-only cursor.
+     * The handler sees each row once; nothing is held after it returns.
+     *
+     * @param college only students of this college, or all students if null
+     */
+    public void streamExportRows(Long examId, String college, RowCallbackHandler handler) {
+        streamingJdbcTemplate.query(EXPORT_SQL + collegeFilter(college) + "ORDER BY a.id",
+                params(examId, college), handler);
+    }
+
+    /**
+     * Scan the results of every completed attempt of an exam into a result cube
+     */
+    public ResultCube buildCube(Long examId) {
+        ResultCube.Builder builder = new ResultCube.Builder();
+        namedParameterJdbcTemplate.query(CUBE_SQL, params(examId, null), rs -> {
+            Timestamp endTime = rs.getTimestamp(7);
+            builder.add(rs.getString(1), rs.getString(2), rs.getString(3),
+                    hundredths(rs.getBigDecimal(4)), hundredths(rs.getBigDecimal(5)), hundredths(rs.getBigDecimal(6)),
+                    endTime == null ? null : endTime.toLocalDateTime());
+        });
+        return builder.build();
+    }
+
+    public List<Long> findExamIdsOfAttempts(List<Long> attemptIds) {
+        return namedParameterJdbcTemplate.queryForList(EXAMS_OF_ATTEMPTS_SQL,
+                Map.of("attemptIds", attemptIds), Long.class);
+    }
+
+    private static int hundredths(BigDecimal score) {
+        return score == null ? 0 : score.movePointRight(2).intValue();
+    }
+
+    private static MapSqlParameterSource params(Long examId, String college) {
+        return new MapSqlParameterSource("examId", examId).addValue("college", college);
+    }
+
+    private static String collegeFilter(String college) {
+        return college == null || college.isBlank() ? "" : COLLEGE_FILTER;
+    }
+}
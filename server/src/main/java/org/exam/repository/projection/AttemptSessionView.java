@@ -0,0 +1,14 @@
+package org.exam.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns of an exam attempt needed for ownership, deadline and completion checks.
+ */
+public record AttemptSessionView(Long attemptId,
+                                 Long studentId,
+                                 Long examId,
+                                 LocalDateTime startTime,
+                                 Integer durationMinutes,
+                                 Boolean isCompleted) {
+}
@@ -0,0 +1,7 @@
+package org.exam.repository.projection;
+
+/**
+ * The number of attempts of one exam among a set of attempts.
+ */
+public record ExamAttemptCount(Long examId, Long attempts) {
+}
@@ -0,0 +1,17 @@
+package org.exam.repository.projection;
+
+import org.exam.model.ExamAttempt;
+
+import java.time.LocalDateTime;
+
+/**
+ * An exam attempt flagged for review because of its focus-loss violations.
+ */
+public record FlaggedAttemptView(Long attemptId,
+                                 String studentId,
+                                 String fullName,
+                                 String email,
+                                 ExamAttempt.ViolationLevel violationLevel,
+                                 LocalDateTime flaggedAt,
+                                 Boolean isCompleted) {
+}
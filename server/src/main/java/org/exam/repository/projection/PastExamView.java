@@ -0,0 +1,30 @@
+package org.exam.repository.projection;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.exam.grading.SectionScores;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A completed attempt in a student's exam history, with its section totals and
+ * the passing marks of the exam's sections (null for a section the exam lacks).
+ */
+public record PastExamView(Long attemptId,
+                           Long examId,
+                           String title,
+                           LocalDateTime startTime,
+                           LocalDateTime endTime,
+                           BigDecimal aptitudeScore,
+                           BigDecimal reasoningScore,
+                           BigDecimal codingScore,
+                           Integer aptitudePassingMarks,
+                           Integer reasoningPassingMarks,
+                           Integer codingPassingMarks) {
+
+    @JsonProperty("passed")
+    public boolean isPassed() {
+        return new SectionScores(aptitudeScore, reasoningScore, codingScore)
+                .passes(aptitudePassingMarks, reasoningPassingMarks, codingPassingMarks);
+    }
+}
@@ -0,0 +1,11 @@
+package org.exam.repository.projection;
+
+/**
+ * Pass/fail counts of the completed attempts of an exam.
+ */
+public record ResultStatistics(long totalStudents, long passedStudents) {
+
+    public long failedStudents() {
+        return totalStudents - passedStudents;
+    }
+}
@@ -0,0 +1,22 @@
+package org.exam.repository.projection;
+
+import org.exam.grading.SectionScores;
+
+import java.math.BigDecimal;
+
+/**
+ * One row of an exam result report: a completed attempt with its student and section totals.
+ */
+public record StudentResultRow(Long attemptId,
+                               String studentId,
+                               String fullName,
+                               String branch,
+                               String academicYear,
+                               BigDecimal aptitudeScore,
+                               BigDecimal reasoningScore,
+                               BigDecimal codingScore) {
+
+    public SectionScores scores() {
+        return new SectionScores(aptitudeScore, reasoningScore, codingScore);
+    }
+}
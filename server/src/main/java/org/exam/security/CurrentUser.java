@@ -0,0 +1,59 @@
+package org.exam.security;
+
+import org.exam.exception.AuthenticationException;
+import org.exam.exception.ResourceNotFoundException;
+import org.exam.model.Student;
+import org.exam.model.User;
+import org.exam.repository.StudentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Access to the user behind the current request.
+ */
+@Component
+public class CurrentUser {
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    /**
+     * @return the principal of the current request
+     * @throws AuthenticationException if the request is not authenticated
+     */
+    public ExamPrincipal get() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            throw new AuthenticationException("Not authenticated");
+        }
+
+        if (authentication.getPrincipal() instanceof ExamPrincipal principal) {
+            return principal;
+        }
+        return new ExamPrincipal(null, authentication.getName(), null, null);
+    }
+
+    /**
+     * Get the id of the student making the request. Taken from the token claims;
+     * only tokens without a userId claim cost a lookup by email.
+     *
+     * @return the student's user id
+     * @throws ResourceNotFoundException if the current user is not a student
+     */
+    public Long studentId() {
+        ExamPrincipal principal = get();
+
+        if (principal.userId() != null) {
+            if (principal.role() != User.Role.STUDENT) {
+                throw new ResourceNotFoundException("Student not found");
+            }
+            return principal.userId();
+        }
+
+        return studentRepository.findByEmail(principal.email())
+                .map(Student::getId)
+                .orElseThrow(() -> new ResourceNotFoundException("Student not found"));
+    }
+}
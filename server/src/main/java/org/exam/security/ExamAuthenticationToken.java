@@ -0,0 +1,33 @@
+package org.exam.security;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.Collection;
+
+/**
+ * Authentication built from a verified JWT, with an {@link ExamPrincipal} as principal.
+ */
+public class ExamAuthenticationToken extends AbstractAuthenticationToken {
+
+    private final ExamPrincipal principal;
+    private final Jwt jwt;
+
+    public ExamAuthenticationToken(ExamPrincipal principal, Jwt jwt, Collection<? extends GrantedAuthority> authorities) {
+        super(authorities);
+        this.principal = principal;
+        this.jwt = jwt;
+        setAuthenticated(true);
+    }
+
+    @Override
+    public ExamPrincipal getPrincipal() {
+        return principal;
+    }
+
+    @Override
+    public Jwt getCredentials() {
+        return jwt;
+    }
+}
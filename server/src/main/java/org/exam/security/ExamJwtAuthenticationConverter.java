@@ -0,0 +1,57 @@
+package org.exam.security;
+
+import org.exam.model.User;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts a verified JWT into an {@link ExamAuthenticationToken}, taking the user id,
+ * role and student registration number from the claims written by JwtUtil.
+ */
+public class ExamJwtAuthenticationConverter implements Converter<Jwt, AbstractAuthenticationToken> {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    @Override
+    public AbstractAuthenticationToken convert(Jwt jwt) {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        User.Role role = null;
+
+        String roles = jwt.getClaimAsString("roles");
+        if (roles != null) {
+            for (String authority : roles.split(",")) {
+                String name = authority.trim();
+                if (name.isEmpty()) {
+                    continue;
+                }
+                authorities.add(new SimpleGrantedAuthority(name));
+                if (role == null && name.startsWith(ROLE_PREFIX)) {
+                    role = parseRole(name.substring(ROLE_PREFIX.length()));
+                }
+            }
+        }
+
+        Object userId = jwt.getClaims().get("userId");
+        ExamPrincipal principal = new ExamPrincipal(
+                userId instanceof Number number ? number.longValue() : null,
+                jwt.getSubject(),
+                role,
+                jwt.getClaimAsString("studentId"));
+
+        return new ExamAuthenticationToken(principal, jwt, authorities);
+    }
+
+    private User.Role parseRole(String name) {
+        try {
+            return User.Role.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
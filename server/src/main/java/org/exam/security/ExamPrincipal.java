@@ -0,0 +1,22 @@
+package org.exam.security;
+
+import org.exam.model.User;
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+/**
+ * Authenticated user as carried by a verified token: no database lookup is needed
+ * to know who is calling.
+ *
+ * @param userId    primary key of the user (for students also the students table key), null if the token has no userId claim
+ * @param email     token subject
+ * @param role      role of the user, null if the token carries no known role
+ * @param studentId registration number of a student, null for other users
+ */
+public record ExamPrincipal(Long userId, String email, User.Role role, String studentId)
+        implements AuthenticatedPrincipal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
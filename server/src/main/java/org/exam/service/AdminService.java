@@ -1,22 +1,32 @@
 package org.exam.service;
 
+import org.exam.cache.AttemptSession;
+import org.exam.cache.AttemptSessionRegistry;
+import org.exam.cache.ExamContentCache;
+import org.exam.cache.ExamSnapshot;
 import org.exam.dto.request.ExamCreationRequest;
 import org.exam.dto.request.QuestionCreationRequest;
 import org.exam.dto.request.ReportGenerationRequest;
 import org.exam.dto.response.ExamResponse;
+import org.exam.event.ExamAvailabilityChangedEvent;
+import org.exam.event.ExamContentChangedEvent;
 import org.exam.exception.ResourceNotFoundException;
 import org.exam.model.*;
+import org.exam.report.ResultCube;
+import org.exam.report.ResultCubeCache;
 import org.exam.repository.*;
-import org.exam.util.PdfGenerator;
+import org.exam.repository.projection.FlaggedAttemptView;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class AdminService {
@@ -40,7 +50,31 @@ public class AdminService {
     private ExamReportRepository examReportRepository;
 
     @Autowired
-    private PdfGenerator pdfGenerator;
+    private ExamAttemptRepository examAttemptRepository;
+
+    @Autowired
+    private ReportJobService reportJobService;
+
+    @Autowired
+    private ResultCubeCache resultCubeCache;
+
+    @Autowired
+    private ExamContentCache examContentCache;
+
+    @Autowired
+    private AttemptSessionRegistry attemptSessionRegistry;
+
+    @Autowired
+    private ExamMonitorStream examMonitorStream;
+
+    @Value("${exam.presence.online-seconds:30}")
+    private long presenceOnlineSeconds;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ExamResponseMapper examResponseMapper;
 
     @Transactional
     public ExamResponse createExam(ExamCreationRequest request) {
@@ -76,8 +110,38 @@ public class AdminService {
         List<Section> savedSections = sectionRepository.saveAll(sections);
         savedExam.setSections(savedSections);
 
+        eventPublisher.publishEvent(new ExamAvailabilityChangedEvent(savedExam.getId()));
+
         // Convert to response
-        return convertToExamResponse(savedExam);
+        return examResponseMapper.toResponse(savedExam);
+    }
+
+    /**
+     * Make an exam available to students, or withdraw it
+     *
+     * @param examId the ID of the exam
+     * @param active whether students can see and start the exam
+     * @return the updated exam
+     * @throws ResourceNotFoundException if exam not found
+     * @throws IllegalStateException if an exam without a valid schedule is activated
+     */
+    @Transactional
+    public ExamResponse setExamActive(Long examId, boolean active) {
+        Exam exam = examRepository.findWithSectionsById(examId)
+                .orElseThrow(() -> new ResourceNotFoundException("Exam not found"));
+
+        if (active && (exam.getStartTime() == null || exam.getEndTime() == null
+                || !exam.getEndTime().isAfter(exam.getStartTime()))) {
+            throw new IllegalStateException("Exam needs a start time before its end time to be activated");
+        }
+
+        exam.setIsActive(active);
+        examRepository.save(exam);
+
+        // The active exam catalog is reloaded once this commits
+        eventPublisher.publishEvent(new ExamAvailabilityChangedEvent(examId));
+
+        return examResponseMapper.toResponse(exam);
     }
 
     @Transactional
@@ -129,6 +193,9 @@ public class AdminService {
             questions.add(savedQuestion);
         }
 
+        // Cached snapshots of this exam's content are evicted once the transaction commits
+        eventPublisher.publishEvent(new ExamContentChangedEvent(exam.getId()));
+
         // Return summary
         Map<String, Object> result = new HashMap<>();
         result.put("sectionId", sectionId);
@@ -157,32 +224,151 @@ public class AdminService {
         report.setCodingPassingMarks(request.getPassingCriteria().getCoding());
 
         ExamReport savedReport = examReportRepository.save(report);
-
-        // Generate PDF (in a real implementation, this might be done asynchronously)
-        // For simplicity, we're just setting a placeholder path
-        String reportPath = "reports/" + savedReport.getId() + ".pdf";
-        savedReport.setReportPath(reportPath);
+        savedReport.setReportPath(reportJobService.reportFile(savedReport.getId()).toString());
         examReportRepository.save(savedReport);
 
-        // Here we would actually generate the PDF using the PdfGenerator service
-        // pdfGenerator.generateExamReport(savedReport);
+        // Statistics and the PDF are computed by a report worker once this transaction commits
+        reportJobService.submit(savedReport.getId());
 
         // Return report details
         Map<String, Object> result = new HashMap<>();
         result.put("reportId", savedReport.getId());
         result.put("examId", exam.getId());
         result.put("generatedAt", savedReport.getGeneratedAt());
+        result.put("status", savedReport.getStatus().name());
+        result.put("statusUrl", "/api/admin/reports/" + savedReport.getId());
         result.put("reportUrl", "/api/admin/reports/" + savedReport.getId() + "/download");
 
-        // In a real implementation, we would compute these statistics
-        result.put("totalStudents", 50);
-        result.put("passedStudents", 35);
-        result.put("failedStudents", 15);
+        return result;
+    }
+
+    /**
+     * Get the status, progress and timing of a report job
+     *
+     * @param reportId the ID of the report
+     * @return the report status
+     * @throws ResourceNotFoundException if report not found
+     */
+    public Map<String, Object> getReportStatus(Long reportId) {
+        return reportJobService.getStatus(reportId);
+    }
+
+    /**
+     * Summarise the completed results of an exam from its result cube
+     *
+     * @param examId the ID of the exam
+     * @param filter college, cohort and completion date filters
+     * @param passingMarks passing marks per section; missing marks default to the exam's
+     * @param groupBy optional dimension to break the summary down by
+     * @return the summary, and the groups if requested
+     * @throws ResourceNotFoundException if exam not found
+     */
+    public Map<String, Object> getResultSummary(Long examId, ResultCube.Filter filter,
+                                                ResultCube.PassingMarks passingMarks,
+                                                ResultCube.Dimension groupBy) {
+        ResultCube cube = resultCubeCache.get(examId);
+
+        ExamSnapshot snapshot = examContentCache.get(examId);
+        ResultCube.PassingMarks marks = new ResultCube.PassingMarks(
+                passingMarks.aptitude() != null ? passingMarks.aptitude() : snapshot.getPassingMarks(Section.SectionType.APTITUDE),
+                passingMarks.reasoning() != null ? passingMarks.reasoning() : snapshot.getPassingMarks(Section.SectionType.REASONING),
+                passingMarks.coding() != null ? passingMarks.coding() : snapshot.getPassingMarks(Section.SectionType.CODING));
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("examId", examId);
+        result.put("asOf", cube.getBuiltAt());
+        result.put("passingMarks", marks);
+        result.put("summary", cube.aggregate(filter, marks));
+        if (groupBy != null) {
+            result.put("groupBy", groupBy.name());
+            result.put("groups", cube.aggregate(filter, marks, groupBy));
+        }
+        return result;
+    }
+
+    /**
+     * Get the attempts of an exam flagged for review because of focus-loss violations
+     *
+     * @param examId the ID of the exam
+     * @return the flagged attempts, most severe first
+     * @throws ResourceNotFoundException if exam not found
+     */
+    public Map<String, Object> getFlaggedAttempts(Long examId) {
+        if (!examRepository.existsById(examId)) {
+            throw new ResourceNotFoundException("Exam not found");
+        }
 
+        List<FlaggedAttemptView> attempts = new ArrayList<>(examAttemptRepository.findFlaggedByExamId(examId));
+        attempts.sort(Comparator.comparing(FlaggedAttemptView::violationLevel).reversed());
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("examId", examId);
+        result.put("count", attempts.size());
+        result.put("attempts", attempts);
         return result;
     }
 
-    public Resource getReportResource(Long reportId) {
+    /**
+     * Count the running attempts of an exam by client presence, from the in-memory
+     * attempt sessions
+     *
+     * @param examId the ID of the exam
+     * @return online, stale and never-seen counts of the running attempts
+     */
+    public Map<String, Object> getPresence(Long examId) {
+        long now = System.currentTimeMillis();
+        long onlineSince = now - presenceOnlineSeconds * 1000;
+
+        int online = 0;
+        int stale = 0;
+        int neverSeen = 0;
+        for (AttemptSession session : attemptSessionRegistry.getSessions(examId)) {
+            if (session.isCompleted() || session.isExpired(now)) {
+                continue;
+            }
+            long lastSeen = session.getLastSeenEpochMillis();
+            if (lastSeen == 0) {
+                neverSeen++;
+            } else if (lastSeen >= onlineSince) {
+                online++;
+            } else {
+                stale++;
+            }
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("examId", examId);
+        result.put("serverTime", now);
+        result.put("running", online + stale + neverSeen);
+        result.put("online", online);
+        result.put("stale", stale);
+        result.put("neverSeen", neverSeen);
+        return result;
+    }
+
+    /**
+     * Open the live monitoring stream of an exam
+     *
+     * @param examId the ID of the exam
+     * @return the event stream, pushing a snapshot about once per second
+     * @throws ResourceNotFoundException if exam not found
+     */
+    public SseEmitter openMonitor(Long examId) {
+        if (!examRepository.existsById(examId)) {
+            throw new ResourceNotFoundException("Exam not found");
+        }
+        return examMonitorStream.subscribe(examId);
+    }
+
+    /**
+     * Get the file of a generated report
+     *
+     * @param reportId the ID of the report
+     * @return the path of the report PDF
+     * @throws ResourceNotFoundException if report not found
+     * @throws IllegalStateException if the report has not been generated yet
+     */
+    public Path getReportFile(Long reportId) {
         String email = SecurityContextHolder.getContext().getAuthentication().getName();
         User admin = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("Admin not found"));
@@ -190,31 +376,14 @@ public class AdminService {
         ExamReport report = examReportRepository.findById(reportId)
                 .orElseThrow(() -> new ResourceNotFoundException("Report not found"));
 
-        // In a real implementation, we would fetch the PDF file
-        // For now, we'll just return a placeholder
-        String dummyPdf = "This is a PDF report placeholder";
-        return new ByteArrayResource(dummyPdf.getBytes());
-    }
+        if (report.getStatus() != ExamReport.Status.COMPLETED) {
+            throw new IllegalStateException("Report is not ready yet");
+        }
 
-    private ExamResponse convertToExamResponse(Exam exam) {
-        List<ExamResponse.SectionResponse> sectionResponses = exam.getSections().stream()
-                .map(section -> ExamResponse.SectionResponse.builder()
-                        .id(section.getId())
-                        .sectionType(section.getSectionType().name())
-                        .title(section.getTitle())
-                        .passingMarks(section.getPassingMarks())
-                        .build())
-                .collect(Collectors.toList());
-
-        return ExamResponse.builder()
-                .id(exam.getId())
-                .title(exam.getTitle())
-                .description(exam.getDescription())
-                .startTime(exam.getStartTime())
-                .endTime(exam.getEndTime())
-                .durationMinutes(exam.getDurationMinutes())
-                .isActive(exam.getIsActive())
-                .sections(sectionResponses)
-                .build();
+        Path file = Path.of(report.getReportPath());
+        if (!Files.isRegularFile(file)) {
+            throw new ResourceNotFoundException("Report file not found");
+        }
+        return file;
     }
 }
@@ -0,0 +1,325 @@
+package org.exam.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.exam.dto.request.AnswerSubmissionRequest;
+import org.exam.id.IdBlockAllocator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for student answers.
+ *
+ * Submissions land in an in-memory answer sheet per attempt, where the latest answer
+ * for a question replaces any earlier one that has not been written yet. Sheets are
+ * flushed to student_answers / student_answer_options in JDBC batches on a fixed
+ * interval, and on demand for a single attempt when the exam is completed.
+ *
+ * Completing an attempt closes its sheet: the sheet stays behind as a tombstone
+ * for a while, so a submission racing the completion is rejected instead of
+ * starting a new sheet that would be written after the attempt was graded. A write
+ * that breaks a constraint is isolated by halving its batch and then dropped, so
+ * it cannot hold back the answers of other attempts.
+ */
+@Component
+public class AnswerWriteBehindBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(AnswerWriteBehindBuffer.class);
+
+    private static final String DELETE_OPTIONS_SQL =
+            "DELETE sao FROM student_answer_options sao " +
+            "JOIN student_answers sa ON sao.student_answer_id = sa.id " +
+            "WHERE sa.attempt_id = ? AND sa.question_id = ?";
+
+    private static final String DELETE_ANSWERS_SQL =
+            "DELETE FROM student_answers WHERE attempt_id = ? AND question_id = ?";
+
+    private static final String INSERT_ANSWER_SQL =
+            "INSERT INTO student_answers (id, attempt_id, question_id, answer_text, is_correct, marks_awarded) " +
+            "VALUES (?, ?, ?, ?, NULL, 0)";
+
+    private static final String INSERT_OPTION_SQL =
+            "INSERT INTO student_answer_options (id, student_answer_id, option_id) VALUES (?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private IdBlockAllocator idBlockAllocator;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${exam.answers.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    private final Map<Long, AnswerSheet> sheets = new ConcurrentHashMap<>();
+
+    private final AtomicInteger bufferedAnswers = new AtomicInteger();
+
+    // Serializes flushes so a forced flush never returns while a scheduled one
+    // is still writing answers of the same attempt
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    @Value("${exam.answers.tombstone-seconds:600}")
+    private long tombstoneSeconds;
+
+    private Timer flushTimer;
+
+    private Counter droppedCounter;
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("exam.answers.buffer.depth", bufferedAnswers, AtomicInteger::get)
+                .description("Answers waiting to be written to the database")
+                .register(meterRegistry);
+        Gauge.builder("exam.answers.buffer.attempts", sheets, Map::size)
+                .description("Attempts with an answer sheet in the buffer")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("exam.answers.flush")
+                .description("Time taken to write one batch of buffered answers")
+                .register(meterRegistry);
+        droppedCounter = Counter.builder("exam.answers.dropped")
+                .description("Buffered answers dropped because they break a database constraint")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Buffer the answers of a section submission. Answers replace any pending answer
+     * to the same question of the same attempt.
+     *
+     * @throws IllegalStateException if the attempt has been closed
+     */
+    public void submit(Long attemptId, List<AnswerSubmissionRequest.StudentAnswerRequest> answers) {
+        AnswerSheet sheet = sheets.computeIfAbsent(attemptId, AnswerSheet::new);
+
+        synchronized (sheet) {
+            if (sheet.closedAtMillis != 0) {
+                throw new IllegalStateException("Exam is already completed");
+            }
+            for (AnswerSubmissionRequest.StudentAnswerRequest answer : answers) {
+                long[] optionIds = answer.getSelectedOptionIds() == null
+                        ? new long[0]
+                        : answer.getSelectedOptionIds().stream().mapToLong(Long::longValue).toArray();
+
+                BufferedAnswer buffered = new BufferedAnswer(answer.getQuestionId(), optionIds, answer.getAnswerText());
+                if (sheet.pending.put(answer.getQuestionId(), buffered) == null) {
+                    bufferedAnswers.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Close the answer sheet of an attempt that is about to be completed and write
+     * all its pending answers. Later submissions to the attempt are rejected.
+     *
+     * Call it before the transaction that completes the attempt, not inside it: each
+     * batch is written in a transaction of its own, so a write that has to be dropped
+     * cannot roll back the completion.
+     */
+    public void close(Long attemptId) {
+        AnswerSheet sheet = sheets.computeIfAbsent(attemptId, AnswerSheet::new);
+        synchronized (sheet) {
+            if (sheet.closedAtMillis == 0) {
+                sheet.closedAtMillis = System.currentTimeMillis();
+            }
+        }
+
+        flushLock.lock();
+        try {
+            writeInBatches(List.of(sheet));
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${exam.answers.flush-interval-ms:2000}")
+    public void flushAll() {
+        if (bufferedAnswers.get() == 0) {
+            return;
+        }
+
+        flushLock.lock();
+        try {
+            writeInBatches(new ArrayList<>(sheets.values()));
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${exam.answers.tombstone-sweep-ms:60000}")
+    public void sweepTombstones() {
+        long expiredBefore = System.currentTimeMillis() - tombstoneSeconds * 1000;
+        sheets.values().removeIf(sheet ->
+                sheet.closedAtMillis != 0 && sheet.closedAtMillis < expiredBefore && sheet.pending.isEmpty());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushAll();
+    }
+
+    private void writeInBatches(List<AnswerSheet> sheetsToFlush) {
+        List<PendingWrite> batch = new ArrayList<>(flushBatchSize);
+
+        for (AnswerSheet sheet : sheetsToFlush) {
+            for (Map.Entry<Long, BufferedAnswer> entry : sheet.pending.entrySet()) {
+                batch.add(new PendingWrite(sheet, entry.getValue()));
+                if (batch.size() >= flushBatchSize) {
+                    writeBatch(batch);
+                    batch = new ArrayList<>(flushBatchSize);
+                }
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            writeBatch(batch);
+        }
+    }
+
+    private void writeBatch(List<PendingWrite> batch) {
+        // Detach the answers first; anything submitted while the batch is being
+        // written stays in the sheet for the next flush
+        List<PendingWrite> detached = new ArrayList<>(batch.size());
+        for (PendingWrite write : batch) {
+            if (write.sheet.pending.remove(write.answer.questionId, write.answer)) {
+                bufferedAnswers.decrementAndGet();
+                detached.add(write);
+            }
+        }
+
+        if (!detached.isEmpty()) {
+            write(detached);
+        }
+    }
+
+    private void write(List<PendingWrite> writes) {
+        try {
+            flushTimer.record(() -> transactionTemplate.executeWithoutResult(status -> persist(writes)));
+        } catch (DataIntegrityViolationException e) {
+            // Retrying cannot help; halve the batch until the offending write is alone
+            if (writes.size() > 1) {
+                int half = writes.size() / 2;
+                write(writes.subList(0, half));
+                write(writes.subList(half, writes.size()));
+                return;
+            }
+            PendingWrite write = writes.get(0);
+            droppedCounter.increment();
+            log.error("Dropping the answer to question {} of attempt {}, it cannot be written",
+                    write.answer.questionId, write.sheet.attemptId, e);
+        } catch (RuntimeException e) {
+            log.error("Failed to flush {} buffered answers, they will be retried", writes.size(), e);
+            for (PendingWrite write : writes) {
+                // The sheet object is put back as is, so a closed sheet stays closed
+                AnswerSheet sheet = sheets.computeIfAbsent(write.sheet.attemptId, attemptId -> write.sheet);
+                if (sheet.pending.putIfAbsent(write.answer.questionId, write.answer) == null) {
+                    bufferedAnswers.incrementAndGet();
+                }
+            }
+            throw e;
+        }
+    }
+
+    private void persist(List<PendingWrite> writes) {
+        BatchPreparedStatementSetter byAttemptAndQuestion = new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, writes.get(i).sheet.attemptId);
+                ps.setLong(2, writes.get(i).answer.questionId);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return writes.size();
+            }
+        };
+
+        // Replace answers written by an earlier flush of the same questions
+        jdbcTemplate.batchUpdate(DELETE_OPTIONS_SQL, byAttemptAndQuestion);
+        jdbcTemplate.batchUpdate(DELETE_ANSWERS_SQL, byAttemptAndQuestion);
+
+        long[] answerIds = idBlockAllocator.next("student_answers", writes.size());
+        jdbcTemplate.batchUpdate(INSERT_ANSWER_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, answerIds[i]);
+                ps.setLong(2, writes.get(i).sheet.attemptId);
+                ps.setLong(3, writes.get(i).answer.questionId);
+                ps.setString(4, writes.get(i).answer.answerText);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return writes.size();
+            }
+        });
+
+        List<long[]> optionRows = new ArrayList<>();
+        for (int i = 0; i < writes.size(); i++) {
+            for (long optionId : writes.get(i).answer.optionIds) {
+                optionRows.add(new long[]{answerIds[i], optionId});
+            }
+        }
+
+        if (!optionRows.isEmpty()) {
+            long[] optionIds = idBlockAllocator.next("student_answer_options", optionRows.size());
+            jdbcTemplate.batchUpdate(INSERT_OPTION_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setLong(1, optionIds[i]);
+                    ps.setLong(2, optionRows.get(i)[0]);
+                    ps.setLong(3, optionRows.get(i)[1]);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return optionRows.size();
+                }
+            });
+        }
+    }
+
+    private static final class AnswerSheet {
+        private final long attemptId;
+        private final Map<Long, BufferedAnswer> pending = new ConcurrentHashMap<>();
+
+        // Set when the attempt is completed; guarded by the sheet
+        private volatile long closedAtMillis;
+
+        private AnswerSheet(Long attemptId) {
+            this.attemptId = attemptId;
+        }
+    }
+
+    private record BufferedAnswer(long questionId, long[] optionIds, String answerText) {
+    }
+
+    private record PendingWrite(AnswerSheet sheet, BufferedAnswer answer) {
+    }
+}
@@ -0,0 +1,163 @@
+package org.exam.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.exam.cache.AttemptSessionRegistry;
+import org.exam.event.AttemptsCompletedEvent;
+import org.exam.repository.ExamAttemptRepository;
+import org.exam.repository.projection.AttemptSessionView;
+import org.exam.util.TimingWheel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Server-side deadline engine for running exam attempts.
+ *
+ * Every running attempt's deadline is held in a hashed timing wheel. Attempts
+ * whose deadline (plus a grace period for in-flight submissions) has passed are
+ * auto-completed in batches: their buffered answers are flushed and they are
+ * closed with one UPDATE per batch. On startup the wheel is rebuilt from the
+ * incomplete exam_attempts rows.
+ */
+@Component
+public class AttemptDeadlineScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(AttemptDeadlineScheduler.class);
+
+    @Autowired
+    private ExamAttemptRepository examAttemptRepository;
+
+    @Autowired
+    private AttemptSessionRegistry attemptSessionRegistry;
+
+    @Autowired
+    private AnswerWriteBehindBuffer answerWriteBehindBuffer;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ExamLiveCounters examLiveCounters;
+
+    @Value("${exam.deadlines.tick-ms:1000}")
+    private long tickMillis;
+
+    @Value("${exam.deadlines.wheel-size:1024}")
+    private int wheelSize;
+
+    @Value("${exam.deadlines.grace-seconds:30}")
+    private long graceSeconds;
+
+    @Value("${exam.deadlines.batch-size:500}")
+    private int batchSize;
+
+    private TimingWheel wheel;
+
+    // Expired attempts that could not be closed yet, retried on the next tick
+    private final List<Long> pending = new ArrayList<>();
+
+    @PostConstruct
+    public void init() {
+        wheel = new TimingWheel(tickMillis, wheelSize, System.currentTimeMillis());
+        Gauge.builder("exam.deadlines.scheduled", this, AttemptDeadlineScheduler::scheduledCount)
+                .description("Running attempts with a deadline in the timing wheel")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Schedule the auto-completion of an attempt at its deadline
+     */
+    public synchronized void schedule(Long attemptId, long deadlineEpochMillis) {
+        wheel.schedule(attemptId, deadlineEpochMillis + graceSeconds * 1000);
+    }
+
+    public synchronized void cancel(Long attemptId) {
+        wheel.cancel(attemptId);
+    }
+
+    public synchronized int scheduledCount() {
+        return wheel.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<AttemptSessionView> running = examAttemptRepository.findIncompleteSessionViews();
+        synchronized (this) {
+            for (AttemptSessionView attempt : running) {
+                examLiveCounters.attemptStarted(attempt.examId());
+                wheel.schedule(attempt.attemptId(), AttemptSessionRegistry.deadlineOf(
+                        attempt.startTime(), attempt.durationMinutes()) + graceSeconds * 1000);
+            }
+        }
+        log.info("Rebuilt deadline schedule with {} running attempts", running.size());
+    }
+
+    @Scheduled(fixedRateString = "${exam.deadlines.tick-ms:1000}")
+    public void tick() {
+        List<Long> expired;
+        synchronized (this) {
+            wheel.advance(System.currentTimeMillis(), pending::add);
+            if (pending.isEmpty()) {
+                return;
+            }
+            expired = new ArrayList<>(pending);
+            pending.clear();
+        }
+
+        for (int from = 0; from < expired.size(); from += batchSize) {
+            List<Long> batch = expired.subList(from, Math.min(from + batchSize, expired.size()));
+            try {
+                completeExpired(batch);
+            } catch (RuntimeException e) {
+                log.error("Failed to auto-complete {} expired attempts, they will be retried", batch.size(), e);
+                synchronized (this) {
+                    pending.addAll(batch);
+                }
+            }
+        }
+    }
+
+    private void completeExpired(List<Long> attemptIds) {
+        LocalDateTime now = LocalDateTime.now();
+
+        // Past the deadline and its grace period nothing more is accepted; closing the
+        // sheet of an attempt the student already completed is a no-op
+        attemptIds.forEach(answerWriteBehindBuffer::close);
+
+        List<Long> closed = transactionTemplate.execute(status -> {
+            // Attempts the student completed first are skipped; a completion racing this
+            // one waits on the lock and then finds the attempt closed
+            List<Long> open = examAttemptRepository.lockIncomplete(attemptIds);
+            if (!open.isEmpty()) {
+                examAttemptRepository.markAllCompleted(open, now);
+            }
+            return open;
+        });
+
+        attemptIds.forEach(attemptSessionRegistry::markCompleted);
+        // Only attempts closed here are announced, so each completion is published once
+        if (!closed.isEmpty()) {
+            eventPublisher.publishEvent(new AttemptsCompletedEvent(List.copyOf(closed)));
+        }
+        log.debug("Auto-completed {} of {} expired attempts", closed.size(), attemptIds.size());
+    }
+}
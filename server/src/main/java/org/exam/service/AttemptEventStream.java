@@ -0,0 +1,325 @@
+package org.exam.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.exam.cache.AttemptSession;
+import org.exam.cache.AttemptSessionRegistry;
+import org.exam.event.AttemptsCompletedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-sent event streams of running attempts.
+ *
+ * One shared tick walks the subscribers of every exam: it sends each one a
+ * server-time event every {@code exam.stream.time-sync-seconds} (staggered by
+ * attempt so the sends are spread over the interval), the 15, 10 and 5 minute
+ * alerts as their deadline passes them, and a submitted event when the attempt
+ * ends. A subscriber is an emitter and a few primitives; no timer or thread is
+ * held per connection.
+ *
+ * The tick only decides what each subscriber is owed; the sends run on
+ * {@code streamSendExecutor}, at most one at a time per subscriber, so a client
+ * that stops reading never holds up the scheduler or the other streams. A
+ * subscriber whose send has been blocked for {@code exam.stream.send-timeout-ms}
+ * is dropped, and so is one that finds the send queue full.
+ */
+@Component
+public class AttemptEventStream {
+
+    private static final Logger log = LoggerFactory.getLogger(AttemptEventStream.class);
+
+    private static final int[] ALERT_MINUTES = {15, 10, 5};
+
+    @Autowired
+    private AttemptSessionRegistry attemptSessionRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("streamSendExecutor")
+    private TaskExecutor streamSendExecutor;
+
+    @Value("${exam.stream.time-sync-seconds:30}")
+    private int timeSyncSeconds;
+
+    @Value("${exam.stream.grace-seconds:60}")
+    private long graceSeconds;
+
+    @Value("${exam.stream.send-timeout-ms:5000}")
+    private long sendTimeoutMs;
+
+    // Subscribers by exam, then by attempt; a new stream for an attempt replaces the old one
+    private final Map<Long, Map<Long, Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("exam.stream.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open student event streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Open the event stream of a running attempt
+     */
+    public SseEmitter subscribe(AttemptSession session) {
+        long now = System.currentTimeMillis();
+        long timeout = Math.max(0, session.getDeadlineEpochMillis() - now) + graceSeconds * 1000;
+
+        SseEmitter emitter = new SseEmitter(timeout);
+        Subscriber subscriber = new Subscriber(session, emitter);
+
+        Map<Long, Subscriber> examSubscribers = subscribers.computeIfAbsent(session.getExamId(),
+                id -> new ConcurrentHashMap<>());
+        Subscriber previous = examSubscribers.put(session.getAttemptId(), subscriber);
+        if (previous != null) {
+            previous.emitter.complete();
+        } else {
+            subscriberCount.incrementAndGet();
+        }
+
+        Runnable remove = () -> remove(subscriber);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+
+        // Sync the client clock right away, without the alerts it has already missed
+        List<SseEmitter.SseEventBuilder> events = new ArrayList<>();
+        synchronized (subscriber) {
+            subscriber.skipPassedAlerts(now);
+            subscriber.addTime(now, events);
+        }
+        dispatch(subscriber, events);
+        return emitter;
+    }
+
+    @Scheduled(fixedRateString = "${exam.stream.tick-ms:1000}")
+    public void tick() {
+        long now = System.currentTimeMillis();
+        long second = now / 1000;
+
+        for (Map<Long, Subscriber> examSubscribers : subscribers.values()) {
+            for (Subscriber subscriber : examSubscribers.values()) {
+                long sendingSince = subscriber.sendingSince;
+                if (sendingSince != 0) {
+                    // The previous send has not returned; the client has stopped reading
+                    if (now - sendingSince > sendTimeoutMs) {
+                        drop(subscriber);
+                    }
+                    continue;
+                }
+                List<SseEmitter.SseEventBuilder> events = new ArrayList<>();
+                synchronized (subscriber) {
+                    subscriber.update(now, second, timeSyncSeconds, events);
+                }
+                dispatch(subscriber, events);
+            }
+        }
+        subscribers.values().removeIf(Map::isEmpty);
+    }
+
+    /**
+     * Tell the clients of completed attempts right away, whether the student
+     * submitted or the deadline scheduler closed the attempt
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAttemptsCompleted(AttemptsCompletedEvent event) {
+        long now = System.currentTimeMillis();
+        for (Long attemptId : event.attemptIds()) {
+            AttemptSession session = attemptSessionRegistry.getIfPresent(attemptId);
+            Map<Long, Subscriber> examSubscribers = session == null ? null : subscribers.get(session.getExamId());
+            Subscriber subscriber = examSubscribers == null ? null : examSubscribers.get(attemptId);
+            if (subscriber == null) {
+                continue;
+            }
+            List<SseEmitter.SseEventBuilder> events = new ArrayList<>();
+            synchronized (subscriber) {
+                subscriber.completed = true;
+                // With a send in flight the next tick announces it instead
+                if (subscriber.sendingSince == 0) {
+                    subscriber.addSubmitted(now, events);
+                }
+            }
+            dispatch(subscriber, events);
+        }
+    }
+
+    /**
+     * Hand the events of a subscriber to the send executor. Removes the subscriber
+     * once its stream is finished.
+     */
+    private void dispatch(Subscriber subscriber, List<SseEmitter.SseEventBuilder> events) {
+        if (events.isEmpty()) {
+            if (subscriber.finished) {
+                remove(subscriber);
+            }
+            return;
+        }
+
+        subscriber.sendingSince = System.currentTimeMillis();
+        try {
+            streamSendExecutor.execute(() -> deliver(subscriber, events));
+        } catch (TaskRejectedException e) {
+            subscriber.sendingSince = 0;
+            log.warn("Stream send queue is full, closing the stream of attempt {}", subscriber.session.getAttemptId());
+            remove(subscriber);
+        }
+    }
+
+    private void deliver(Subscriber subscriber, List<SseEmitter.SseEventBuilder> events) {
+        boolean sent = true;
+        try {
+            for (SseEmitter.SseEventBuilder event : events) {
+                subscriber.emitter.send(event);
+            }
+        } catch (IOException | IllegalStateException e) {
+            sent = false;
+        } finally {
+            subscriber.sendingSince = 0;
+        }
+
+        if (subscriber.dropped) {
+            // Removed while this send was blocked; the emitter can be completed now
+            completeQuietly(subscriber);
+        } else if (!sent || subscriber.finished) {
+            remove(subscriber);
+        }
+    }
+
+    private boolean unregister(Subscriber subscriber) {
+        Map<Long, Subscriber> examSubscribers = subscribers.get(subscriber.session.getExamId());
+        if (examSubscribers != null && examSubscribers.remove(subscriber.session.getAttemptId(), subscriber)) {
+            subscriberCount.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (unregister(subscriber)) {
+            completeQuietly(subscriber);
+        }
+    }
+
+    /**
+     * Forget a subscriber whose send is blocked. Its emitter is left alone until the
+     * send returns, since completing it would wait for the same send.
+     */
+    private void drop(Subscriber subscriber) {
+        subscriber.dropped = true;
+        if (unregister(subscriber)) {
+            log.debug("Dropping the stream of attempt {}, its client is not reading", subscriber.session.getAttemptId());
+        }
+    }
+
+    private void completeQuietly(Subscriber subscriber) {
+        try {
+            subscriber.emitter.complete();
+        } catch (IllegalStateException e) {
+            // Already completed by the container
+        }
+    }
+
+    /**
+     * @return the number of open streams
+     */
+    int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    private static final class Subscriber {
+        private final AttemptSession session;
+        private final SseEmitter emitter;
+        private final int syncOffset;
+        private int nextAlert;
+        private boolean completed;
+        private volatile boolean finished;
+
+        // Start of the send in flight, 0 if none
+        private volatile long sendingSince;
+
+        private volatile boolean dropped;
+
+        private Subscriber(AttemptSession session, SseEmitter emitter) {
+            this.session = session;
+            this.emitter = emitter;
+            this.syncOffset = (int) (session.getAttemptId() & Integer.MAX_VALUE);
+        }
+
+        void skipPassedAlerts(long now) {
+            long remaining = session.getDeadlineEpochMillis() - now;
+            while (nextAlert < ALERT_MINUTES.length && remaining <= ALERT_MINUTES[nextAlert] * 60_000L) {
+                nextAlert++;
+            }
+        }
+
+        /**
+         * Collect the events owed at this tick
+         */
+        void update(long now, long second, int timeSyncSeconds, List<SseEmitter.SseEventBuilder> events) {
+            if (finished) {
+                return;
+            }
+            if (completed || session.isCompleted() || session.isExpired(now)) {
+                addSubmitted(now, events);
+                return;
+            }
+
+            long remaining = session.getDeadlineEpochMillis() - now;
+            if (nextAlert < ALERT_MINUTES.length && remaining <= ALERT_MINUTES[nextAlert] * 60_000L) {
+                // Announce only the latest threshold passed, should several have passed since the last tick
+                skipPassedAlerts(now);
+                int minutes = ALERT_MINUTES[nextAlert - 1];
+                events.add(event("alert", Map.of(
+                        "minutesRemaining", minutes,
+                        "remainingSeconds", remaining / 1000,
+                        "message", minutes + " minutes remaining")));
+            }
+
+            if ((second + syncOffset) % timeSyncSeconds == 0) {
+                addTime(now, events);
+            }
+        }
+
+        void addTime(long now, List<SseEmitter.SseEventBuilder> events) {
+            events.add(event("time", Map.of(
+                    "serverTime", now,
+                    "remainingSeconds", Math.max(0, (session.getDeadlineEpochMillis() - now) / 1000))));
+        }
+
+        void addSubmitted(long now, List<SseEmitter.SseEventBuilder> events) {
+            if (finished) {
+                return;
+            }
+            events.add(event("submitted", Map.of(
+                    "serverTime", now,
+                    "reason", session.isExpired(now) ? "TIME_UP" : "SUBMITTED",
+                    "message", "Your exam has been submitted")));
+            finished = true;
+        }
+
+        private static SseEmitter.SseEventBuilder event(String name, Object data) {
+            return SseEmitter.event().name(name).data(data);
+        }
+    }
+}
@@ -13,7 +13,6 @@ import org.exam.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -56,6 +55,7 @@ public class AuthService {
         student.setStudentId(request.getStudentId());
         student.setBranch(request.getBranch());
         student.setAcademicYear(request.getAcademicYear());
+        student.setCollege(request.getCollege());
 
         // Save the student
         Student savedStudent = studentRepository.save(student);
@@ -83,13 +83,10 @@ public class AuthService {
 
     public AuthResponse adminLogin(LoginRequest request) {
         try {
-            Authentication authentication = authenticationManager.authenticate(
+            authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
             );
 
-            // Generate JWT token
-            String token = jwtUtil.generateToken(authentication);
-
             // Get user details
             User user = userRepository.findByEmail(request.getEmail())
                     .orElseThrow(() -> new AuthenticationException("User not found"));
@@ -98,6 +95,9 @@ public class AuthService {
                 throw new AuthenticationException("Access denied. Admin role required.");
             }
 
+            // Generate JWT token carrying the user id and role claims
+            String token = jwtUtil.generateTokenForUser(user);
+
             // Create user response
             UserResponse userResponse = UserResponse.builder()
                     .id(user.getId())
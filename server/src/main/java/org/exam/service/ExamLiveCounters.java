@@ -0,0 +1,80 @@
+package org.exam.service;
+
+import org.exam.event.AttemptsCompletedEvent;
+import org.exam.repository.ExamAttemptRepository;
+import org.exam.repository.projection.ExamAttemptCount;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live activity counters per exam, updated on the student request paths.
+ *
+ * Counters are striped {@link LongAdder}s, so concurrent students never contend on
+ * one cache line, and reading a snapshot costs the same however many students are
+ * online. Counts are since server start; running attempts found at startup are
+ * counted as started.
+ */
+@Component
+public class ExamLiveCounters {
+
+    @Autowired
+    private ExamAttemptRepository examAttemptRepository;
+
+    private final Map<Long, Counters> counters = new ConcurrentHashMap<>();
+
+    public void attemptStarted(long examId) {
+        of(examId).started.increment();
+    }
+
+    public void sectionSubmitted(long examId) {
+        of(examId).submissions.increment();
+    }
+
+    public void focusLost(long examId) {
+        of(examId).focusLossEvents.increment();
+    }
+
+    public void attemptFlagged(long examId) {
+        of(examId).flagged.increment();
+    }
+
+    /**
+     * Exams are resolved from the database, not the session registry, so attempts
+     * started before a restart and evicted sessions are still counted
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAttemptsCompleted(AttemptsCompletedEvent event) {
+        for (ExamAttemptCount count : examAttemptRepository.countByExam(event.attemptIds())) {
+            of(count.examId()).completed.add(count.attempts());
+        }
+    }
+
+    public Snapshot snapshot(long examId) {
+        Counters c = of(examId);
+        long started = c.started.sum();
+        long completed = c.completed.sum();
+        return new Snapshot(started, completed, Math.max(0, started - completed),
+                c.submissions.sum(), c.focusLossEvents.sum(), c.flagged.sum());
+    }
+
+    private Counters of(long examId) {
+        return counters.computeIfAbsent(examId, id -> new Counters());
+    }
+
+    public record Snapshot(long started, long completed, long active,
+                           long submissions, long focusLossEvents, long flagged) {
+    }
+
+    private static final class Counters {
+        private final LongAdder started = new LongAdder();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder submissions = new LongAdder();
+        private final LongAdder focusLossEvents = new LongAdder();
+        private final LongAdder flagged = new LongAdder();
+    }
+}
@@ -0,0 +1,175 @@
+package org.exam.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Live monitoring streams of running exams for admins.
+ *
+ * Once per tick, each exam with at least one subscriber gets one snapshot computed
+ * from {@link ExamLiveCounters} and serialized once; the same bytes are then sent to
+ * every admin watching that exam. Rates are the counter deltas since the previous
+ * tick.
+ *
+ * Sends run on {@code streamSendExecutor}, one at a time per admin; an admin whose
+ * previous send is still in flight skips the snapshot, as the next one supersedes
+ * it, and is dropped once that send has been blocked for
+ * {@code exam.monitor.send-timeout-ms}.
+ */
+@Component
+public class ExamMonitorStream {
+
+    private static final Logger log = LoggerFactory.getLogger(ExamMonitorStream.class);
+
+    @Autowired
+    private ExamLiveCounters examLiveCounters;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("streamSendExecutor")
+    private TaskExecutor streamSendExecutor;
+
+    @Value("${exam.monitor.send-timeout-ms:5000}")
+    private long sendTimeoutMs;
+
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+
+    /**
+     * Open the monitoring stream of an exam
+     */
+    public SseEmitter subscribe(Long examId) {
+        // Admins stay subscribed until they disconnect
+        SseEmitter emitter = new SseEmitter(0L);
+        Subscriber subscriber = new Subscriber(emitter);
+        Channel channel = channels.compute(examId, (id, existing) -> {
+            Channel c = existing != null ? existing : new Channel(id);
+            c.subscribers.add(subscriber);
+            return c;
+        });
+
+        Runnable remove = () -> channel.subscribers.remove(subscriber);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+        return emitter;
+    }
+
+    @Scheduled(fixedRateString = "${exam.monitor.tick-ms:1000}")
+    public void tick() throws JsonProcessingException {
+        long now = System.currentTimeMillis();
+
+        for (Channel channel : channels.values()) {
+            if (channel.subscribers.isEmpty()) {
+                // Atomic with subscribe, so a new subscriber never lands on a dropped channel
+                channels.computeIfPresent(channel.examId, (id, c) -> c.subscribers.isEmpty() ? null : c);
+                continue;
+            }
+
+            String snapshot = objectMapper.writeValueAsString(channel.snapshot(now));
+            for (Subscriber subscriber : channel.subscribers) {
+                long sendingSince = subscriber.sendingSince;
+                if (sendingSince == 0) {
+                    dispatch(channel, subscriber, snapshot);
+                } else if (now - sendingSince > sendTimeoutMs) {
+                    // The admin's client has stopped reading; the emitter is completed when the send returns
+                    subscriber.dropped = true;
+                    channel.subscribers.remove(subscriber);
+                    log.debug("Dropping a monitor stream of exam {}, its client is not reading", channel.examId);
+                }
+            }
+        }
+    }
+
+    private void dispatch(Channel channel, Subscriber subscriber, String snapshot) {
+        subscriber.sendingSince = System.currentTimeMillis();
+        try {
+            streamSendExecutor.execute(() -> deliver(channel, subscriber, snapshot));
+        } catch (TaskRejectedException e) {
+            // Skipped; the next tick sends a newer snapshot
+            subscriber.sendingSince = 0;
+        }
+    }
+
+    private void deliver(Channel channel, Subscriber subscriber, String snapshot) {
+        try {
+            subscriber.emitter.send(SseEmitter.event().name("snapshot").data(snapshot, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            channel.subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+            return;
+        } finally {
+            subscriber.sendingSince = 0;
+        }
+        if (subscriber.dropped) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+
+        // Start of the send in flight, 0 if none
+        private volatile long sendingSince;
+
+        private volatile boolean dropped;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+
+    private final class Channel {
+        private final long examId;
+        private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+        private ExamLiveCounters.Snapshot previous;
+        private long previousMillis;
+
+        private Channel(long examId) {
+            this.examId = examId;
+        }
+
+        Map<String, Object> snapshot(long now) {
+            ExamLiveCounters.Snapshot current = examLiveCounters.snapshot(examId);
+            double seconds = previous == null ? 0 : (now - previousMillis) / 1000.0;
+
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("examId", examId);
+            snapshot.put("serverTime", now);
+            snapshot.put("activeAttempts", current.active());
+            snapshot.put("completedAttempts", current.completed());
+            snapshot.put("flaggedAttempts", current.flagged());
+            snapshot.put("submissionsPerSecond",
+                    seconds > 0 ? rate(current.submissions() - previous.submissions(), seconds) : 0.0);
+            snapshot.put("focusLossPerSecond",
+                    seconds > 0 ? rate(current.focusLossEvents() - previous.focusLossEvents(), seconds) : 0.0);
+
+            previous = current;
+            previousMillis = now;
+            return snapshot;
+        }
+
+        private double rate(long delta, double seconds) {
+            return Math.round(delta / seconds * 100) / 100.0;
+        }
+    }
+}
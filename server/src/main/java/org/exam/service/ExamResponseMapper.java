@@ -0,0 +1,42 @@
+package org.exam.service;
+
+import org.exam.dto.response.ExamResponse;
+import org.exam.model.Exam;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Maps exams to their API representation. Reads {@code exam.getSections()}, so
+ * callers load exams with their sections fetched (see ExamRepository) to avoid a
+ * query per exam.
+ */
+@Component
+public class ExamResponseMapper {
+
+    public ExamResponse toResponse(Exam exam) {
+        List<ExamResponse.SectionResponse> sections = exam.getSections().stream()
+                .map(section -> ExamResponse.SectionResponse.builder()
+                        .id(section.getId())
+                        .sectionType(section.getSectionType().name())
+                        .title(section.getTitle())
+                        .passingMarks(section.getPassingMarks())
+                        .build())
+                .toList();
+
+        return ExamResponse.builder()
+                .id(exam.getId())
+                .title(exam.getTitle())
+                .description(exam.getDescription())
+                .startTime(exam.getStartTime())
+                .endTime(exam.getEndTime())
+                .durationMinutes(exam.getDurationMinutes())
+                .isActive(exam.getIsActive())
+                .sections(sections)
+                .build();
+    }
+
+    public List<ExamResponse> toResponses(List<Exam> exams) {
+        return exams.stream().map(this::toResponse).toList();
+    }
+}
@@ -1,20 +1,21 @@
 package org.exam.service;
 
+import org.exam.cache.ExamContentCache;
 import org.exam.dto.response.ExamResponse;
 import org.exam.dto.response.QuestionResponse;
 import org.exam.exception.ResourceNotFoundException;
 import org.exam.model.Exam;
-import org.exam.model.Question;
-import org.exam.model.Section;
 import org.exam.repository.ExamRepository;
-import org.exam.repository.QuestionRepository;
-import org.exam.repository.SectionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 /**
  * Service for exam-related operations that are common for both students and admins
@@ -22,14 +23,16 @@ import java.util.stream.Collectors;
 @Service
 public class ExamService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private ExamRepository examRepository;
 
     @Autowired
-    private SectionRepository sectionRepository;
+    private ExamContentCache examContentCache;
 
     @Autowired
-    private QuestionRepository questionRepository;
+    private ExamResponseMapper examResponseMapper;
 
     /**
      * Get an exam by its ID
@@ -40,21 +43,39 @@ public class ExamService {
      */
     @Transactional(readOnly = true)
     public ExamResponse getExamById(Long examId) {
-        Exam exam = examRepository.findById(examId)
+        Exam exam = examRepository.findWithSectionsById(examId)
                 .orElseThrow(() -> new ResourceNotFoundException("Exam not found with id: " + examId));
 
-        return convertToExamResponse(exam);
+        return examResponseMapper.toResponse(exam);
     }
 
     /**
-     * Get all available exams
+     * Get one page of all exams, newest first
      *
-     * @return list of exam responses
+     * @param page the page number, starting at 0
+     * @param size the number of exams per page
+     * @return the exams of the page, with the page number, size and totals
      */
     @Transactional(readOnly = true)
-    public List<ExamResponse> getAllExams() {
-        List<Exam> exams = examRepository.findAll();
-        return exams.stream().map(this::convertToExamResponse).collect(Collectors.toList());
+    public Map<String, Object> getAllExams(int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalStateException("Page must be at least 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        // Page over ids first, then fetch that page's exams with their sections in one query
+        Sort order = Sort.by(Sort.Direction.DESC, "id");
+        Page<Long> ids = examRepository.findIds(PageRequest.of(page, size, order));
+        List<Exam> exams = ids.isEmpty()
+                ? List.of()
+                : examRepository.findWithSectionsByIdIn(ids.getContent(), order);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("exams", examResponseMapper.toResponses(exams));
+        result.put("page", page);
+        result.put("size", size);
+        result.put("totalExams", ids.getTotalElements());
+        result.put("totalPages", ids.getTotalPages());
+        return result;
     }
 
     /**
@@ -64,71 +85,8 @@ public class ExamService {
      * @param sectionId the ID of the section
      * @return list of question responses
      */
-    @Transactional(readOnly = true)
     public List<QuestionResponse> getQuestionsBySection(Long examId, Long sectionId) {
-        // Verify exam exists
-        Exam exam = examRepository.findById(examId)
-                .orElseThrow(() -> new ResourceNotFoundException("Exam not found with id: " + examId));
-
-        // Verify section exists and belongs to this exam
-        Section section = sectionRepository.findById(sectionId)
-                .orElseThrow(() -> new ResourceNotFoundException("Section not found with id: " + sectionId));
-
-        if (!section.getExam().getId().equals(examId)) {
-            throw new ResourceNotFoundException("Section does not belong to the specified exam");
-        }
-
-        List<Question> questions = questionRepository.findBySection(section);
-        return questions.stream().map(this::convertToQuestionResponse).collect(Collectors.toList());
-    }
-
-    /**
-     * Helper method to convert Exam entity to ExamResponse DTO
-     */
-    private ExamResponse convertToExamResponse(Exam exam) {
-        ExamResponse response = new ExamResponse();
-        response.setId(exam.getId());
-        response.setTitle(exam.getTitle());
-        response.setDescription(exam.getDescription());
-        response.setStartTime(exam.getStartTime());
-        response.setEndTime(exam.getEndTime());
-        response.setDurationMinutes(exam.getDurationMinutes());
-        response.setIsActive(exam.getIsActive());
-
-        // Map section information
-        if (exam.getSections() != null) {
-            response.setSections(exam.getSections().stream().map(section -> {
-                ExamResponse.SectionResponse sectionResponse = new ExamResponse.SectionResponse();
-                sectionResponse.setId(section.getId());
-                sectionResponse.setTitle(section.getTitle());
-                sectionResponse.setSectionType(section.getSectionType().name());
-                sectionResponse.setPassingMarks(section.getPassingMarks());
-                return sectionResponse;
-            }).collect(Collectors.toList()));
-        }
-
-        return response;
-    }
-
-    /**
-     * Helper method to convert Question entity to QuestionResponse DTO
-     */
-    private QuestionResponse convertToQuestionResponse(Question question) {
-        QuestionResponse response = new QuestionResponse();
-        response.setId(question.getId());
-        response.setQuestionText(question.getQuestionText());
-        response.setQuestionType(question.getQuestionType().name());
-
-        // Map options if available
-        if (question.getOptions() != null) {
-            response.setOptions(question.getOptions().stream().map(option -> {
-                QuestionResponse.QuestionOptionResponse optionResponse = new QuestionResponse.QuestionOptionResponse();
-                optionResponse.setId(option.getId());
-                optionResponse.setOptionText(option.getOptionText());
-                return optionResponse;
-            }).collect(Collectors.toList()));
-        }
-
-        return response;
+        // Served from the exam content snapshot; a section of another exam is simply not found
+        return examContentCache.get(examId).getSection(sectionId).studentQuestions();
     }
 }
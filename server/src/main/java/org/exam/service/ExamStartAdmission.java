@@ -0,0 +1,180 @@
+package org.exam.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.exam.cache.ActiveExamCatalog;
+import org.exam.exception.AdmissionDeferredException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for exam start requests.
+ *
+ * Every exam has a fair, bounded waiting room in front of {@link StudentService#startExam}.
+ * Requests are admitted at a sustainable rate (a token bucket with a small burst);
+ * when no token is free the student gets a ticket, and with it a queue position
+ * and a retry-after value. Tickets are admitted strictly in the order they were
+ * issued, whether or not their holders are retrying at that moment.
+ *
+ * Only exams that {@link ActiveExamCatalog} lists as running get a waiting room.
+ * A waiting room is dropped once its exam stops running, or once nobody has used
+ * it for {@code exam.admission.ticket-ttl-seconds}.
+ */
+@Component
+public class ExamStartAdmission {
+
+    @Value("${exam.admission.rate-per-second:50}")
+    private double ratePerSecond;
+
+    @Value("${exam.admission.burst:50}")
+    private int burst;
+
+    @Value("${exam.admission.capacity:5000}")
+    private int capacity;
+
+    @Value("${exam.admission.ticket-ttl-seconds:120}")
+    private long ticketTtlSeconds;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ActiveExamCatalog activeExamCatalog;
+
+    private final Map<Long, AdmissionQueue> queues = new ConcurrentHashMap<>();
+
+    private Timer waitTimer;
+
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("exam.admission.queue.depth", queues,
+                        q -> q.values().stream().mapToLong(AdmissionQueue::depth).sum())
+                .description("Exam start requests waiting for admission")
+                .register(meterRegistry);
+        waitTimer = Timer.builder("exam.admission.wait")
+                .description("Time between getting a ticket and being admitted")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("exam.admission.rejected")
+                .description("Exam start requests turned away because the waiting room was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admit a student to start an exam, or tell them when to come back
+     *
+     * @throws AdmissionDeferredException if the student has to wait
+     * @throws IllegalStateException if the exam is not running
+     */
+    public void admit(Long examId, Long studentId) {
+        if (!activeExamCatalog.isRunning(examId, LocalDateTime.now())) {
+            throw new IllegalStateException("Exam is not available at this time");
+        }
+        queues.computeIfAbsent(examId, id -> new AdmissionQueue()).admit(studentId, System.nanoTime());
+    }
+
+    @Scheduled(fixedDelayString = "${exam.admission.sweep-interval-ms:60000}")
+    public void evictIdleQueues() {
+        LocalDateTime now = LocalDateTime.now();
+        long idleBefore = System.nanoTime() - TimeUnit.SECONDS.toNanos(ticketTtlSeconds);
+        queues.entrySet().removeIf(entry ->
+                !activeExamCatalog.isRunning(entry.getKey(), now) || entry.getValue().isIdleSince(idleBefore));
+    }
+
+    private final class AdmissionQueue {
+
+        private double tokens = burst;
+        private long lastRefillNanos = System.nanoTime();
+        private long lastPurgeNanos = lastRefillNanos;
+
+        // Tickets below head have been admitted, tickets from head to tail are waiting
+        private long head;
+        private long tail;
+
+        private final Map<Long, Ticket> tickets = new HashMap<>();
+
+        synchronized void admit(Long studentId, long now) {
+            refill(now);
+
+            Ticket ticket = tickets.get(studentId);
+            if (ticket != null) {
+                if (ticket.number < head) {
+                    tickets.remove(studentId);
+                    waitTimer.record(now - ticket.issuedNanos, TimeUnit.NANOSECONDS);
+                    return;
+                }
+                throw deferred(ticket.number - head);
+            }
+
+            // Nobody is waiting and a token is free: straight in
+            if (head == tail && tokens >= 1) {
+                tokens -= 1;
+                return;
+            }
+
+            if (tail - head >= capacity) {
+                rejectedCounter.increment();
+                throw new AdmissionDeferredException("Too many students are starting this exam, please retry later",
+                        -1, retryAfterSeconds(capacity), true);
+            }
+
+            long number = tail++;
+            tickets.put(studentId, new Ticket(number, now));
+            throw deferred(number - head);
+        }
+
+        synchronized long depth() {
+            return tail - head;
+        }
+
+        /**
+         * @return whether nobody is waiting and nobody has asked since {@code nanos};
+         * any admitted tickets left are then past their TTL too
+         */
+        synchronized boolean isIdleSince(long nanos) {
+            return head == tail && lastRefillNanos - nanos < 0;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(burst, tokens + (now - lastRefillNanos) * ratePerSecond / 1_000_000_000d);
+            lastRefillNanos = now;
+
+            while (tokens >= 1 && head < tail) {
+                head++;
+                tokens -= 1;
+            }
+
+            // Forget admitted tickets whose holders never came back
+            if (now - lastPurgeNanos > TimeUnit.SECONDS.toNanos(ticketTtlSeconds)) {
+                long cutoff = now - TimeUnit.SECONDS.toNanos(ticketTtlSeconds);
+                tickets.values().removeIf(t -> t.number < head && t.issuedNanos < cutoff);
+                lastPurgeNanos = now;
+            }
+        }
+
+        private AdmissionDeferredException deferred(long position) {
+            return new AdmissionDeferredException("You are in the waiting room for this exam",
+                    position + 1, retryAfterSeconds(position + 1), false);
+        }
+
+        private long retryAfterSeconds(long ticketsAhead) {
+            double seconds = Math.max(0, ticketsAhead - tokens) / ratePerSecond;
+            return Math.max(1, (long) Math.ceil(seconds));
+        }
+    }
+
+    private record Ticket(long number, long issuedNanos) {
+    }
+}
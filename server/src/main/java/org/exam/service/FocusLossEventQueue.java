@@ -0,0 +1,245 @@
+package org.exam.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.exam.id.IdBlockAllocator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ingestion pipeline for focus-loss events.
+ *
+ * Events are appended to a bounded lock-free queue and acknowledged at once; a
+ * background writer persists them to focus_loss_events in JDBC batches. When the
+ * queue is full, events are merged into one pending row per attempt and event type
+ * (counting the events and summing their durations), and only when that overflow
+ * table is full too are events dropped. Every outcome is counted.
+ */
+@Component
+public class FocusLossEventQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(FocusLossEventQueue.class);
+
+    private static final String INSERT_EVENT_SQL =
+            "INSERT INTO focus_loss_events (id, attempt_id, event_time, event_type, duration_seconds, event_count) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    // Width of focus_loss_events.event_type
+    private static final int MAX_EVENT_TYPE_LENGTH = 50;
+
+    public enum Outcome {
+        QUEUED, MERGED, DROPPED
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private IdBlockAllocator idBlockAllocator;
+
+    // Event types accepted from clients; anything else is rejected before it is queued
+    @Value("${exam.focus-events.types:TAB_SWITCH,WINDOW_BLUR,FULLSCREEN_EXIT}")
+    private Set<String> eventTypes;
+
+    @Value("${exam.focus-events.capacity:50000}")
+    private int capacity;
+
+    @Value("${exam.focus-events.overflow-capacity:10000}")
+    private int overflowCapacity;
+
+    @Value("${exam.focus-events.batch-size:1000}")
+    private int batchSize;
+
+    private final Queue<PendingEvent> queue = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger depth = new AtomicInteger();
+
+    private final Map<MergeKey, MergedEvents> overflow = new ConcurrentHashMap<>();
+
+    // Serializes the scheduled writer and the final flush on shutdown
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private Counter queuedCounter;
+    private Counter mergedCounter;
+    private Counter droppedCounter;
+    private Timer writeTimer;
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("exam.focus-events.queue.depth", depth, AtomicInteger::get)
+                .description("Focus-loss events waiting to be written")
+                .register(meterRegistry);
+        Gauge.builder("exam.focus-events.overflow.size", overflow, Map::size)
+                .description("Merged focus-loss rows waiting to be written")
+                .register(meterRegistry);
+        queuedCounter = counter("queued", "Focus-loss events queued for writing");
+        mergedCounter = counter("merged", "Focus-loss events merged into an overflow row because the queue was full");
+        droppedCounter = counter("dropped", "Focus-loss events dropped because the queue and overflow were full");
+        writeTimer = Timer.builder("exam.focus-events.write")
+                .description("Time taken to write one batch of focus-loss events")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @throws IllegalStateException if the event type is not one of the configured types
+     */
+    public void requireKnownType(String eventType) {
+        if (eventType == null || eventType.length() > MAX_EVENT_TYPE_LENGTH || !eventTypes.contains(eventType)) {
+            throw new IllegalStateException("Event type must be one of " + eventTypes);
+        }
+    }
+
+    /**
+     * Accept a focus-loss event for writing. Never blocks. The event type must have
+     * passed {@link #requireKnownType}, so one bad value cannot fail a whole batch.
+     */
+    public Outcome offer(Long attemptId, String eventType, int durationSeconds, LocalDateTime eventTime) {
+        if (depth.incrementAndGet() <= capacity) {
+            queue.offer(new PendingEvent(attemptId, eventType, durationSeconds, eventTime));
+            queuedCounter.increment();
+            return Outcome.QUEUED;
+        }
+        depth.decrementAndGet();
+
+        MergeKey key = new MergeKey(attemptId, eventType);
+        MergedEvents merged = overflow.get(key);
+        if (merged == null && overflow.size() < overflowCapacity) {
+            merged = overflow.computeIfAbsent(key, k -> new MergedEvents(eventTime));
+        }
+        if (merged != null && merged.add(durationSeconds)) {
+            mergedCounter.increment();
+            return Outcome.MERGED;
+        }
+
+        droppedCounter.increment();
+        return Outcome.DROPPED;
+    }
+
+    @Scheduled(fixedDelayString = "${exam.focus-events.flush-interval-ms:1000}")
+    public void flush() {
+        if (depth.get() == 0 && overflow.isEmpty()) {
+            return;
+        }
+
+        writeLock.lock();
+        try {
+            List<Object[]> batch = new ArrayList<>(batchSize);
+            PendingEvent event;
+            while ((event = queue.poll()) != null) {
+                depth.decrementAndGet();
+                batch.add(new Object[]{null, event.attemptId(), Timestamp.valueOf(event.eventTime()),
+                        event.eventType(), event.durationSeconds(), 1});
+                if (batch.size() == batchSize) {
+                    write(batch);
+                    batch.clear();
+                }
+            }
+
+            for (MergeKey key : overflow.keySet()) {
+                MergedEvents merged = overflow.remove(key);
+                Object[] row = merged == null ? null : merged.close(key);
+                if (row != null) {
+                    batch.add(row);
+                }
+                if (batch.size() == batchSize) {
+                    write(batch);
+                    batch.clear();
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                write(batch);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void write(List<Object[]> batch) {
+        try {
+            long[] ids = idBlockAllocator.next("focus_loss_events", batch.size());
+            for (int i = 0; i < ids.length; i++) {
+                batch.get(i)[0] = ids[i];
+            }
+            writeTimer.record(() -> jdbcTemplate.batchUpdate(INSERT_EVENT_SQL, batch));
+        } catch (RuntimeException e) {
+            // Telemetry is best effort: a failed batch is dropped rather than retried,
+            // so a database problem can never back up the queue
+            droppedCounter.increment(batch.size());
+            log.error("Failed to write {} focus-loss events", batch.size(), e);
+        }
+    }
+
+    private Counter counter(String outcome, String description) {
+        return Counter.builder("exam.focus-events." + outcome)
+                .description(description)
+                .register(meterRegistry);
+    }
+
+    private record PendingEvent(Long attemptId, String eventType, int durationSeconds, LocalDateTime eventTime) {
+    }
+
+    private record MergeKey(Long attemptId, String eventType) {
+    }
+
+    private static final class MergedEvents {
+        private final LocalDateTime firstEventTime;
+        private int count;
+        private int durationSeconds;
+        private boolean closed;
+
+        private MergedEvents(LocalDateTime firstEventTime) {
+            this.firstEventTime = firstEventTime;
+        }
+
+        synchronized boolean add(int duration) {
+            if (closed) {
+                return false;
+            }
+            count++;
+            durationSeconds += duration;
+            return true;
+        }
+
+        /**
+         * Stop accepting events (later ones are dropped) and return the row to write, if any
+         */
+        synchronized Object[] close(MergeKey key) {
+            closed = true;
+            if (count == 0) {
+                return null;
+            }
+            return new Object[]{null, key.attemptId(), Timestamp.valueOf(firstEventTime),
+                    key.eventType(), durationSeconds, count};
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package org.exam.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.exam.dto.request.QuestionCreationRequest;
+import org.exam.event.ExamContentChangedEvent;
+import org.exam.exception.ResourceNotFoundException;
+import org.exam.id.IdBlockAllocator;
+import org.exam.model.Question;
+import org.exam.model.Section;
+import org.exam.repository.QuestionRepository;
+import org.exam.repository.SectionRepository;
+import org.exam.util.CsvRecordReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk import of question banks into a section.
+ *
+ * The upload is parsed one record at a time, as CSV or JSON lines. Valid questions
+ * are collected into chunks, and each chunk is written in its own transaction with
+ * one batched INSERT for the questions and one for their options. Invalid records
+ * are skipped and reported with their record number; the rest of the upload is still
+ * imported.
+ *
+ * CSV records are {@code question_text,question_type,marks} followed by any number
+ * of {@code option_text,is_correct} pairs, after a header record.
+ */
+@Service
+public class QuestionImportService {
+
+    private static final String INSERT_QUESTION_SQL =
+            "INSERT INTO questions (id, section_id, question_text, question_type, marks) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_OPTION_SQL =
+            "INSERT INTO question_options (id, question_id, option_text, is_correct) VALUES (?, ?, ?, ?)";
+
+    public enum Format {
+        CSV, JSON_LINES
+    }
+
+    @Autowired
+    private SectionRepository sectionRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private IdBlockAllocator idBlockAllocator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${exam.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${exam.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    /**
+     * Import a question bank into a section of an exam
+     *
+     * @param examId the ID of the exam
+     * @param sectionId the ID of the section
+     * @param input the uploaded question bank
+     * @param format the format of the upload
+     * @return counts of imported and rejected questions, with the errors per record
+     * @throws ResourceNotFoundException if section not found
+     * @throws IllegalStateException if the section does not belong to the exam
+     */
+    public Map<String, Object> importQuestions(Long examId, Long sectionId, InputStream input, Format format)
+            throws IOException {
+        Section section = sectionRepository.findById(sectionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Section not found"));
+
+        // Verify section belongs to the exam
+        if (!section.getExam().getId().equals(examId)) {
+            throw new IllegalStateException("Section does not belong to the specified exam");
+        }
+
+        ImportRun run = new ImportRun(sectionId);
+        try {
+            if (format == Format.CSV) {
+                readCsv(input, run);
+            } else {
+                readJsonLines(input, run);
+            }
+            run.flush();
+        } finally {
+            // Cached snapshots of this exam's content are dropped if anything was written
+            if (run.imported > 0) {
+                eventPublisher.publishEvent(new ExamContentChangedEvent(examId));
+            }
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("sectionId", sectionId);
+        result.put("questionsAdded", run.imported);
+        result.put("rejected", run.rejected);
+        result.put("errors", run.errors);
+        result.put("errorsTruncated", run.rejected > run.errors.size());
+        result.put("totalQuestions", questionRepository.countBySection(section));
+        return result;
+    }
+
+    private void readCsv(InputStream input, ImportRun run) throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(
+                new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
+
+        // Header record
+        if (reader.next() == null) {
+            return;
+        }
+
+        while (true) {
+            List<String> fields;
+            try {
+                fields = reader.next();
+            } catch (IllegalStateException e) {
+                run.reject(reader.getRecordNumber() + 1, e.getMessage());
+                break;
+            }
+            if (fields == null) {
+                break;
+            }
+            long record = reader.getRecordNumber();
+            if (fields.size() < 3 || fields.size() % 2 == 0) {
+                run.reject(record, "Expected question_text,question_type,marks followed by option_text,is_correct pairs");
+                continue;
+            }
+
+            QuestionCreationRequest request = new QuestionCreationRequest();
+            request.setQuestionText(fields.get(0));
+            request.setQuestionType(fields.get(1).trim());
+            String marks = fields.get(2).trim();
+            if (!marks.isEmpty()) {
+                try {
+                    request.setMarks(Integer.parseInt(marks));
+                } catch (NumberFormatException e) {
+                    run.reject(record, "Marks must be a whole number");
+                    continue;
+                }
+            }
+
+            List<QuestionCreationRequest.QuestionOptionRequest> options = new ArrayList<>();
+            for (int i = 3; i < fields.size(); i += 2) {
+                // Spreadsheets pad short rows with empty cells
+                if (fields.get(i).isBlank() && fields.get(i + 1).isBlank()) {
+                    continue;
+                }
+                options.add(new QuestionCreationRequest.QuestionOptionRequest(
+                        fields.get(i), Boolean.parseBoolean(fields.get(i + 1).trim())));
+            }
+            request.setOptions(options);
+
+            run.add(record, request);
+        }
+    }
+
+    private void readJsonLines(InputStream input, ImportRun run) throws IOException {
+        try (MappingIterator<QuestionCreationRequest> records = objectMapper
+                .readerFor(QuestionCreationRequest.class)
+                .readValues(input)) {
+            long record = 0;
+            while (true) {
+                record++;
+                QuestionCreationRequest request;
+                try {
+                    if (!records.hasNextValue()) {
+                        break;
+                    }
+                    request = records.nextValue();
+                } catch (JsonProcessingException e) {
+                    // A malformed record cannot be resynchronized reliably, so the import stops here
+                    run.reject(record, "Malformed JSON: " + e.getOriginalMessage());
+                    break;
+                }
+                run.add(record, request);
+            }
+        }
+    }
+
+    /**
+     * @return the validation error of a question, or null if it is valid
+     */
+    private String validate(QuestionCreationRequest request) {
+        for (ConstraintViolation<QuestionCreationRequest> violation : validator.validate(request)) {
+            return violation.getMessage();
+        }
+
+        Question.QuestionType type;
+        try {
+            type = Question.QuestionType.valueOf(request.getQuestionType());
+        } catch (IllegalArgumentException e) {
+            return "Unknown question type: " + request.getQuestionType();
+        }
+
+        if (request.getMarks() == null || request.getMarks() < 0) {
+            return "Marks must not be negative";
+        }
+
+        List<QuestionCreationRequest.QuestionOptionRequest> options =
+                request.getOptions() == null ? List.of() : request.getOptions();
+        for (QuestionCreationRequest.QuestionOptionRequest option : options) {
+            if (option == null || option.getOptionText() == null || option.getOptionText().isBlank()) {
+                return "Option text cannot be empty";
+            }
+        }
+        long correct = options.stream().filter(option -> Boolean.TRUE.equals(option.getIsCorrect())).count();
+        switch (type) {
+            case MULTIPLE_CHOICE_SINGLE, TRUE_FALSE -> {
+                if (options.size() < 2 || correct != 1) {
+                    return "Question needs at least two options with exactly one correct";
+                }
+            }
+            case MULTIPLE_CHOICE_MULTIPLE -> {
+                if (options.size() < 2 || correct < 1) {
+                    return "Question needs at least two options with at least one correct";
+                }
+            }
+            default -> {
+            }
+        }
+        return null;
+    }
+
+    private final class ImportRun {
+        private final long sectionId;
+        private final List<QuestionCreationRequest> chunk = new ArrayList<>();
+        private final List<Map<String, Object>> errors = new ArrayList<>();
+        private int imported;
+        private int rejected;
+
+        private ImportRun(long sectionId) {
+            this.sectionId = sectionId;
+        }
+
+        void add(long record, QuestionCreationRequest request) {
+            String error = validate(request);
+            if (error != null) {
+                reject(record, error);
+                return;
+            }
+            chunk.add(request);
+            if (chunk.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long record, String message) {
+            rejected++;
+            if (errors.size() < maxReportedErrors) {
+                Map<String, Object> error = new LinkedHashMap<>();
+                error.put("record", record);
+                error.put("message", message);
+                errors.add(error);
+            }
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> insert(sectionId, chunk));
+            imported += chunk.size();
+            chunk.clear();
+        }
+    }
+
+    private void insert(long sectionId, List<QuestionCreationRequest> questions) {
+        long[] questionIds = idBlockAllocator.next("questions", questions.size());
+        jdbcTemplate.batchUpdate(INSERT_QUESTION_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                QuestionCreationRequest question = questions.get(i);
+                ps.setLong(1, questionIds[i]);
+                ps.setLong(2, sectionId);
+                ps.setString(3, question.getQuestionText());
+                ps.setString(4, question.getQuestionType());
+                ps.setInt(5, question.getMarks());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return questions.size();
+            }
+        });
+
+        List<Object[]> optionRows = new ArrayList<>();
+        for (int i = 0; i < questions.size(); i++) {
+            List<QuestionCreationRequest.QuestionOptionRequest> options = questions.get(i).getOptions();
+            if (options != null) {
+                for (QuestionCreationRequest.QuestionOptionRequest option : options) {
+                    optionRows.add(new Object[]{null, questionIds[i], option.getOptionText(),
+                            Boolean.TRUE.equals(option.getIsCorrect())});
+                }
+            }
+        }
+
+        if (!optionRows.isEmpty()) {
+            long[] optionIds = idBlockAllocator.next("question_options", optionRows.size());
+            for (int i = 0; i < optionIds.length; i++) {
+                optionRows.get(i)[0] = optionIds[i];
+            }
+            jdbcTemplate.batchUpdate(INSERT_OPTION_SQL, optionRows);
+        }
+    }
+}
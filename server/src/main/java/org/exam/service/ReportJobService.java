@@ -0,0 +1,270 @@
+package org.exam.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.exam.exception.ResourceNotFoundException;
+import org.exam.model.ExamReport;
+import org.exam.repository.ExamReportRepository;
+import org.exam.repository.ReportResultRepository;
+import org.exam.repository.projection.ResultStatistics;
+import org.exam.repository.projection.StudentResultRow;
+import org.exam.util.PdfGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs report generation jobs outside of the request that asked for them.
+ *
+ * Jobs are executed by a small, bounded pool of virtual threads, so at most
+ * {@code exam.reports.workers} reports are rendered (and hold a database
+ * connection) at any time, however many admins ask for reports at once.
+ * Status, timing and pass/fail statistics are stored on the report; the progress
+ * of a running job is kept in memory.
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportJobService.class);
+
+    @Autowired
+    private ExamReportRepository examReportRepository;
+
+    @Autowired
+    private ReportResultRepository reportResultRepository;
+
+    @Autowired
+    private PdfGenerator pdfGenerator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${exam.reports.workers:2}")
+    private int workers;
+
+    @Value("${exam.reports.queue-capacity:50}")
+    private int queueCapacity;
+
+    @Value("${exam.reports.page-size:500}")
+    private int pageSize;
+
+    @Value("${exam.reports.directory:reports}")
+    private String reportsDirectory;
+
+    private ThreadPoolExecutor executor;
+
+    private final Map<Long, JobProgress> running = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofVirtual().name("report-", 0).factory());
+    }
+
+    /**
+     * Jobs live only in this process's queue, so reports left queued or running by a
+     * previous run are queued again. A partly written file is overwritten.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        List<Long> unfinished = examReportRepository.findIdsByStatusIn(
+                List.of(ExamReport.Status.QUEUED, ExamReport.Status.RUNNING));
+        if (!unfinished.isEmpty()) {
+            log.info("Resuming {} unfinished report jobs", unfinished.size());
+            unfinished.forEach(this::enqueue);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public Path reportFile(Long reportId) {
+        return Path.of(reportsDirectory, reportId + ".pdf");
+    }
+
+    /**
+     * Queue the generation of a report, once the transaction that created it commits
+     */
+    public void submit(Long reportId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(reportId);
+                }
+            });
+        } else {
+            enqueue(reportId);
+        }
+    }
+
+    /**
+     * Get the status, progress and timing of a report
+     *
+     * @param reportId the ID of the report
+     * @return the report status
+     * @throws ResourceNotFoundException if report not found
+     */
+    public Map<String, Object> getStatus(Long reportId) {
+        ExamReport report = examReportRepository.findById(reportId)
+                .orElseThrow(() -> new ResourceNotFoundException("Report not found"));
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("reportId", report.getId());
+        result.put("examId", report.getExam().getId());
+        result.put("status", report.getStatus().name());
+        result.put("queuedAt", report.getGeneratedAt());
+        result.put("startedAt", report.getStartedAt());
+        result.put("completedAt", report.getCompletedAt());
+
+        JobProgress progress = running.get(reportId);
+        if (report.getStatus() == ExamReport.Status.COMPLETED) {
+            result.put("progressPercent", 100);
+        } else if (progress != null) {
+            result.put("progressPercent", progress.percent());
+        } else {
+            result.put("progressPercent", 0);
+        }
+
+        if (report.getStartedAt() != null) {
+            LocalDateTime end = report.getCompletedAt() != null ? report.getCompletedAt() : LocalDateTime.now();
+            result.put("durationMillis", Duration.between(report.getStartedAt(), end).toMillis());
+        }
+        if (report.getTotalStudents() != null) {
+            result.put("totalStudents", report.getTotalStudents());
+            result.put("passedStudents", report.getPassedStudents());
+            result.put("failedStudents", report.getFailedStudents());
+        }
+        if (report.getStatus() == ExamReport.Status.COMPLETED) {
+            result.put("reportUrl", "/api/admin/reports/" + report.getId() + "/download");
+        }
+        if (report.getStatus() == ExamReport.Status.FAILED) {
+            result.put("error", report.getErrorMessage());
+        }
+
+        return result;
+    }
+
+    private void enqueue(Long reportId) {
+        try {
+            executor.execute(() -> run(reportId));
+        } catch (RejectedExecutionException e) {
+            log.warn("Report queue is full, report {} was not generated", reportId);
+            finish(reportId, ExamReport.Status.FAILED, "Too many reports are being generated, please retry later");
+        }
+    }
+
+    private void run(Long reportId) {
+        JobProgress progress = new JobProgress();
+        running.put(reportId, progress);
+        try {
+            ExamReport report = transactionTemplate.execute(status -> {
+                ExamReport r = examReportRepository.findWithExamById(reportId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Report not found"));
+                r.setStatus(ExamReport.Status.RUNNING);
+                r.setStartedAt(LocalDateTime.now());
+
+                // Pass/fail statistics in one aggregate query, taken right before the rows are rendered
+                ResultStatistics statistics = reportResultRepository.statistics(r.getExam().getId(), r.getCollege(),
+                        r.getAptitudePassingMarks(), r.getReasoningPassingMarks(), r.getCodingPassingMarks());
+                r.setTotalStudents((int) statistics.totalStudents());
+                r.setPassedStudents((int) statistics.passedStudents());
+                r.setFailedStudents((int) statistics.failedStudents());
+                return examReportRepository.save(r);
+            });
+
+            progress.total = report.getTotalStudents() == null ? 0 : report.getTotalStudents();
+
+            pdfGenerator.generateExamReport(report, resultRows(report), reportFile(reportId),
+                    rows -> progress.processed = rows);
+
+            finish(reportId, ExamReport.Status.COMPLETED, null);
+        } catch (RuntimeException e) {
+            log.error("Failed to generate report {}", reportId, e);
+            finish(reportId, ExamReport.Status.FAILED, "Failed to generate PDF report");
+        } finally {
+            running.remove(reportId);
+        }
+    }
+
+    /**
+     * The result rows of a report, loaded one keyset page at a time. Each page is a
+     * single query and is garbage once the renderer moves past it.
+     */
+    private Iterable<StudentResultRow> resultRows(ExamReport report) {
+        Long examId = report.getExam().getId();
+        String college = report.getCollege();
+        return () -> new Iterator<>() {
+            private List<StudentResultRow> page = List.of();
+            private int index;
+            private long lastId;
+            private boolean exhausted;
+
+            @Override
+            public boolean hasNext() {
+                if (index < page.size()) {
+                    return true;
+                }
+                if (exhausted) {
+                    return false;
+                }
+                page = reportResultRepository.findPage(examId, college, lastId, pageSize);
+                index = 0;
+                exhausted = page.size() < pageSize;
+                return !page.isEmpty();
+            }
+
+            @Override
+            public StudentResultRow next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                StudentResultRow row = page.get(index++);
+                lastId = row.attemptId();
+                return row;
+            }
+        };
+    }
+
+    private void finish(Long reportId, ExamReport.Status status, String errorMessage) {
+        transactionTemplate.executeWithoutResult(tx -> examReportRepository.findById(reportId).ifPresent(report -> {
+            report.setStatus(status);
+            report.setCompletedAt(LocalDateTime.now());
+            report.setErrorMessage(errorMessage);
+            examReportRepository.save(report);
+        }));
+    }
+
+    private static final class JobProgress {
+        private volatile long total;
+        private volatile int processed;
+
+        int percent() {
+            return total == 0 ? 0 : (int) (processed * 100L / total);
+        }
+    }
+}
@@ -1,88 +1,158 @@
 package org.exam.service;
 
+import org.exam.cache.ActiveExamCatalog;
+import org.exam.cache.AttemptSession;
+import org.exam.cache.AttemptSessionRegistry;
+import org.exam.cache.ExamContentCache;
+import org.exam.cache.ExamSnapshot;
+import org.exam.cache.SectionPayload;
+import org.exam.cache.SectionPayloadCache;
 import org.exam.dto.request.AnswerSubmissionRequest;
 import org.exam.dto.response.ExamResponse;
-import org.exam.dto.response.QuestionResponse;
+import org.exam.event.AttemptsCompletedEvent;
 import org.exam.exception.ResourceNotFoundException;
 import org.exam.model.*;
+import org.exam.proctoring.ViolationScorer;
 import org.exam.repository.*;
+import org.exam.repository.projection.PastExamView;
+import org.exam.security.CurrentUser;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.data.domain.Limit;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class StudentService {
 
-    @Autowired
-    private UserRepository userRepository;
+    private static final int PAST_EXAMS_PAGE_SIZE = 20;
+
+    private static final int MAX_PAST_EXAMS_PAGE_SIZE = 100;
 
     @Autowired
     private StudentRepository studentRepository;
 
+    @Autowired
+    private CurrentUser currentUser;
+
     @Autowired
     private ExamRepository examRepository;
 
     @Autowired
-    private SectionRepository sectionRepository;
+    private ExamAttemptRepository examAttemptRepository;
 
     @Autowired
-    private QuestionRepository questionRepository;
+    private StudentAnswerRepository studentAnswerRepository;
 
     @Autowired
-    private ExamAttemptRepository examAttemptRepository;
+    private AnswerWriteBehindBuffer answerWriteBehindBuffer;
 
     @Autowired
-    private StudentAnswerRepository studentAnswerRepository;
+    private ExamContentCache examContentCache;
 
-    public Map<String, List<ExamResponse>> getAvailableExams() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    @Autowired
+    private SectionPayloadCache sectionPayloadCache;
 
-        // Ensure the user is a student
-        if (user.getRole() != User.Role.STUDENT) {
-            throw new ResourceNotFoundException("Student not found");
-        }
+    @Autowired
+    private AttemptSessionRegistry attemptSessionRegistry;
 
-        Student student = (Student) user;
+    @Autowired
+    private AttemptDeadlineScheduler attemptDeadlineScheduler;
 
-        LocalDateTime now = LocalDateTime.now();
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
-        // Get upcoming exams
-        List<Exam> upcomingExams = examRepository.findByIsActiveTrueAndEndTimeAfter(now);
+    @Autowired
+    private FocusLossEventQueue focusLossEventQueue;
 
-        // Convert to response objects
-        List<ExamResponse> upcoming = upcomingExams.stream()
-                .map(this::convertToExamResponse)
-                .collect(Collectors.toList());
+    @Autowired
+    private ViolationScorer violationScorer;
 
-        // For past exams, we'd fetch exam attempts by the student
-        // and create responses with results
-        List<ExamResponse> past = new ArrayList<>(); // Implementation omitted for brevity
+    @Autowired
+    private AttemptEventStream attemptEventStream;
 
-        Map<String, List<ExamResponse>> result = new HashMap<>();
+    @Autowired
+    private ExamLiveCounters examLiveCounters;
+
+    @Autowired
+    private ActiveExamCatalog activeExamCatalog;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    public Map<String, Object> getAvailableExams() {
+        Long studentId = currentUser.studentId();
+
+        LocalDateTime now = LocalDateTime.now();
+
+        // Upcoming and running exams come from the in-memory catalog, without SQL
+        List<ExamResponse> upcoming = activeExamCatalog.getUpcoming(now);
+
+        // The most recent past exams; older ones are paged through getPastExams
+        List<PastExamView> past = examAttemptRepository.findPastExams(studentId, Limit.of(PAST_EXAMS_PAGE_SIZE));
+
+        Map<String, Object> result = new HashMap<>();
         result.put("upcoming", upcoming);
         result.put("past", past);
 
         return result;
     }
 
+    /**
+     * Get one page of the student's completed exams, newest first, with section
+     * scores and pass/fail
+     *
+     * @param beforeEndTime end time of the last attempt of the previous page, or null for the first page
+     * @param beforeAttemptId ID of the last attempt of the previous page, or null for the first page
+     * @param size the number of exams per page
+     * @return the page, with the cursor of the next page if there is one
+     */
+    public Map<String, Object> getPastExams(LocalDateTime beforeEndTime, Long beforeAttemptId, int size) {
+        Long studentId = currentUser.studentId();
+
+        if (size < 1 || size > MAX_PAST_EXAMS_PAGE_SIZE) {
+            throw new IllegalStateException("Size must be between 1 and " + MAX_PAST_EXAMS_PAGE_SIZE);
+        }
+        if ((beforeEndTime == null) != (beforeAttemptId == null)) {
+            throw new IllegalStateException("beforeEndTime and beforeAttemptId must be given together");
+        }
+
+        // One row more than the page tells whether there is a next page
+        Limit limit = Limit.of(size + 1);
+        List<PastExamView> exams = beforeEndTime == null
+                ? examAttemptRepository.findPastExams(studentId, limit)
+                : examAttemptRepository.findPastExamsBefore(studentId, beforeEndTime, beforeAttemptId, limit);
+
+        boolean hasMore = exams.size() > size;
+        if (hasMore) {
+            exams = exams.subList(0, size);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("exams", exams);
+        result.put("hasMore", hasMore);
+        if (hasMore) {
+            PastExamView last = exams.get(exams.size() - 1);
+            result.put("nextBeforeEndTime", last.endTime());
+            result.put("nextBeforeAttemptId", last.attemptId());
+        }
+        return result;
+    }
+
     @Transactional
     public Map<String, Object> startExam(Long examId) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        Student student = studentRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("Student not found"));
+        Long studentId = currentUser.studentId();
 
         Exam exam = examRepository.findById(examId)
                 .orElseThrow(() -> new ResourceNotFoundException("Exam not found"));
 
         // Check if student has already attempted this exam
-        if (examAttemptRepository.existsByExamAndStudent(exam, student)) {
+        if (examAttemptRepository.existsByExamIdAndStudentId(examId, studentId)) {
             throw new IllegalStateException("You have already attempted this exam");
         }
 
@@ -95,12 +165,27 @@ public class StudentService {
         // Create a new exam attempt
         ExamAttempt attempt = new ExamAttempt();
         attempt.setExam(exam);
-        attempt.setStudent(student);
+        attempt.setStudent(studentRepository.getReferenceById(studentId));
         attempt.setStartTime(now);
         attempt.setIsCompleted(false);
 
         ExamAttempt savedAttempt = examAttemptRepository.save(attempt);
 
+        // Ownership, deadline and completion checks of this attempt run against the registry from now on
+        long deadline = AttemptSessionRegistry.deadlineOf(savedAttempt.getStartTime(), exam.getDurationMinutes());
+        AttemptSession session = new AttemptSession(
+                savedAttempt.getId(),
+                studentId,
+                exam.getId(),
+                deadline,
+                false,
+                Section.SectionType.APTITUDE);
+        attemptSessionRegistry.register(session, () -> {
+            examLiveCounters.attemptStarted(session.getExamId());
+            // The attempt is completed by the server if the student never submits it
+            attemptDeadlineScheduler.schedule(session.getAttemptId(), deadline);
+        });
+
         // Return initial exam data
         Map<String, Object> result = new HashMap<>();
         result.put("attemptId", savedAttempt.getId());
@@ -114,71 +199,55 @@ public class StudentService {
         return result;
     }
 
-    public Map<String, Object> getSectionQuestions(Long attemptId, String sectionType) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        Student student = studentRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("Student not found"));
-
-        ExamAttempt attempt = examAttemptRepository.findById(attemptId)
-                .orElseThrow(() -> new ResourceNotFoundException("Exam attempt not found"));
+    public SectionPayload getSectionQuestions(Long attemptId, String sectionType) {
+        Long studentId = currentUser.studentId();
 
         // Verify this attempt belongs to the requesting student
-        if (!attempt.getStudent().getId().equals(student.getId())) {
-            throw new IllegalStateException("You do not have access to this exam attempt");
-        }
+        AttemptSession session = attemptSessionRegistry.requireOwned(attemptId, studentId);
 
         // Check if exam is still in progress
-        if (attempt.getIsCompleted() ||
-            attempt.getStartTime().plusMinutes(attempt.getExam().getDurationMinutes()).isBefore(LocalDateTime.now())) {
+        if (session.isCompleted() || session.isExpired(System.currentTimeMillis())) {
             throw new IllegalStateException("Exam has already ended");
         }
 
-        // Get the section
+        // The section questions are rendered once per exam and section, with the
+        // correct answer information removed, and shared by every student
         Section.SectionType type = Section.SectionType.valueOf(sectionType);
-        Section section = sectionRepository.findByExamAndSectionType(attempt.getExam(), type)
-                .orElseThrow(() -> new ResourceNotFoundException("Section not found"));
-
-        // Get questions for the section
-        List<Question> questions = questionRepository.findBySection(section);
-
-        // Convert to response objects (removing correct answer information)
-        List<QuestionResponse> questionResponses = questions.stream()
-                .map(this::convertToQuestionResponse)
-                .collect(Collectors.toList());
-
-        Map<String, Object> result = new HashMap<>();
-        result.put("sectionType", section.getSectionType().name());
-        result.put("totalQuestions", questionResponses.size());
-        result.put("questions", questionResponses);
-
-        return result;
+        return sectionPayloadCache.get(session.getExamId(), type);
     }
 
-    @Transactional
     public Map<String, Object> submitSectionAnswers(Long attemptId, String sectionType,
                                                    AnswerSubmissionRequest request) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        Student student = studentRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("Student not found"));
-
-        ExamAttempt attempt = examAttemptRepository.findById(attemptId)
-                .orElseThrow(() -> new ResourceNotFoundException("Exam attempt not found"));
+        Long studentId = currentUser.studentId();
 
         // Verify this attempt belongs to the requesting student
-        if (!attempt.getStudent().getId().equals(student.getId())) {
-            throw new IllegalStateException("You do not have access to this exam attempt");
-        }
+        AttemptSession session = attemptSessionRegistry.requireOwned(attemptId, studentId);
 
         // Verify exam is not completed
-        if (attempt.getIsCompleted()) {
+        if (session.isCompleted()) {
             throw new IllegalStateException("Exam is already completed");
         }
 
-        // Save answers (implementation details omitted for brevity)
-        // This would involve creating StudentAnswer objects and saving them
+        // Only accept answers to questions and options of this section, so the
+        // buffered batch never fails on a foreign key
+        Section.SectionType currentType = Section.SectionType.valueOf(sectionType);
+        ExamSnapshot.SectionSnapshot section = examContentCache.get(session.getExamId()).getSection(currentType);
+        for (AnswerSubmissionRequest.StudentAnswerRequest answer : request.getAnswers()) {
+            ExamSnapshot.QuestionSnapshot question = section.getQuestion(answer.getQuestionId());
+            if (question == null) {
+                throw new IllegalStateException("Question " + answer.getQuestionId() + " is not part of this section");
+            }
+            if (answer.getSelectedOptionIds() != null
+                    && !answer.getSelectedOptionIds().stream().allMatch(question::hasOption)) {
+                throw new IllegalStateException("Invalid option selected for question " + answer.getQuestionId());
+            }
+        }
+
+        // Buffer answers; they are written to the database in batches by the write-behind buffer
+        answerWriteBehindBuffer.submit(attemptId, request.getAnswers());
+        examLiveCounters.sectionSubmitted(session.getExamId());
 
         // Determine next section
-        Section.SectionType currentType = Section.SectionType.valueOf(sectionType);
         String nextSection = null;
 
         if (currentType == Section.SectionType.APTITUDE) {
@@ -202,112 +271,127 @@ public class StudentService {
 
         result.put("remainingSections", remainingSections);
 
+        if (nextSection != null) {
+            attemptSessionRegistry.moveToSection(attemptId, Section.SectionType.valueOf(nextSection));
+        }
+
         return result;
     }
 
-    @Transactional
     public Map<String, Object> completeExam(Long attemptId) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        Student student = studentRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("Student not found"));
-
-        ExamAttempt attempt = examAttemptRepository.findById(attemptId)
-                .orElseThrow(() -> new ResourceNotFoundException("Exam attempt not found"));
+        Long studentId = currentUser.studentId();
 
         // Verify this attempt belongs to the requesting student
-        if (!attempt.getStudent().getId().equals(student.getId())) {
-            throw new IllegalStateException("You do not have access to this exam attempt");
-        }
+        AttemptSession session = attemptSessionRegistry.requireOwned(attemptId, studentId);
 
         // Verify exam is not already completed
-        if (attempt.getIsCompleted()) {
+        if (session.isCompleted()) {
+            throw new IllegalStateException("Exam is already completed");
+        }
+
+        // Stop taking answers and write every buffered one before the attempt is closed
+        answerWriteBehindBuffer.close(attemptId);
+
+        // Mark exam as completed; the conditional update also catches a concurrent completion
+        LocalDateTime completionTime = LocalDateTime.now();
+        Integer updated = transactionTemplate.execute(status ->
+                examAttemptRepository.markCompleted(attemptId, completionTime));
+        if (updated == null || updated == 0) {
             throw new IllegalStateException("Exam is already completed");
         }
+        attemptSessionRegistry.markCompleted(attemptId);
+        attemptDeadlineScheduler.cancel(attemptId);
 
-        // Mark exam as completed
-        attempt.setIsCompleted(true);
-        attempt.setEndTime(LocalDateTime.now());
-        examAttemptRepository.save(attempt);
+        // The attempt is graded asynchronously; the completion is already committed
+        eventPublisher.publishEvent(new AttemptsCompletedEvent(List.of(attemptId)));
 
         Map<String, Object> result = new HashMap<>();
-        result.put("examId", attempt.getExam().getId());
-        result.put("attemptId", attempt.getId());
-        result.put("completionTime", attempt.getEndTime());
+        result.put("examId", session.getExamId());
+        result.put("attemptId", attemptId);
+        result.put("completionTime", completionTime);
         result.put("submitted", true);
         result.put("message", "Exam completed successfully");
 
         return result;
     }
 
-    public Map<String, Object> recordFocusLossEvent(Long attemptId, Map<String, Object> eventDetails) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        Student student = studentRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("Student not found"));
+    /**
+     * Record a heartbeat from the student's client. Served from the in-memory
+     * attempt session only.
+     *
+     * @param attemptId the ID of the exam attempt
+     * @return the server time and the time remaining on the attempt
+     */
+    public Map<String, Object> heartbeat(Long attemptId) {
+        Long studentId = currentUser.studentId();
+
+        // Verify this attempt belongs to the requesting student
+        AttemptSession session = attemptSessionRegistry.requireOwned(attemptId, studentId);
 
-        ExamAttempt attempt = examAttemptRepository.findById(attemptId)
-                .orElseThrow(() -> new ResourceNotFoundException("Exam attempt not found"));
+        long now = System.currentTimeMillis();
+        session.touch(now);
+
+        boolean ended = session.isCompleted() || session.isExpired(now);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("attemptId", attemptId);
+        result.put("serverTime", now);
+        result.put("remainingSeconds", ended ? 0 : (session.getDeadlineEpochMillis() - now) / 1000);
+        result.put("completed", ended);
+        return result;
+    }
+
+    /**
+     * Open the server-sent event stream of a running attempt: time sync, deadline
+     * alerts and the submission notice
+     *
+     * @param attemptId the ID of the exam attempt
+     * @return the event stream
+     * @throws IllegalStateException if the attempt has already ended
+     */
+    public SseEmitter openEventStream(Long attemptId) {
+        Long studentId = currentUser.studentId();
 
         // Verify this attempt belongs to the requesting student
-        if (!attempt.getStudent().getId().equals(student.getId())) {
-            throw new IllegalStateException("You do not have access to this exam attempt");
+        AttemptSession session = attemptSessionRegistry.requireOwned(attemptId, studentId);
+
+        if (session.isCompleted() || session.isExpired(System.currentTimeMillis())) {
+            throw new IllegalStateException("Exam has already ended");
         }
 
-        // Record focus loss event
-        FocusLossEvent event = new FocusLossEvent();
-        event.setAttempt(attempt);
-        event.setEventTime(LocalDateTime.now());
-        event.setEventType((String) eventDetails.get("eventType"));
+        return attemptEventStream.subscribe(session);
+    }
+
+    public Map<String, Object> recordFocusLossEvent(Long attemptId, Map<String, Object> eventDetails) {
+        Long studentId = currentUser.studentId();
+
+        // Verify this attempt belongs to the requesting student
+        AttemptSession session = attemptSessionRegistry.requireOwned(attemptId, studentId);
 
-        if (eventDetails.containsKey("durationSeconds")) {
-            event.setDurationSeconds((Integer) eventDetails.get("durationSeconds"));
+        if (!(eventDetails.get("eventType") instanceof String eventType)) {
+            throw new IllegalStateException("Event type is required");
         }
+        focusLossEventQueue.requireKnownType(eventType);
+        int durationSeconds = eventDetails.get("durationSeconds") instanceof Number duration
+                ? duration.intValue() : 0;
 
-        // In a real implementation, you would save this event
-        // focusLossEventRepository.save(event);
+        // Queue the event; it is written to the database in the background
+        FocusLossEventQueue.Outcome outcome = focusLossEventQueue.offer(
+                attemptId, eventType, durationSeconds, LocalDateTime.now());
+        examLiveCounters.focusLost(session.getExamId());
+
+        // Score the attempt's recent focus losses; high levels flag it for review
+        ExamAttempt.ViolationLevel warningLevel = violationScorer.record(session, eventType, durationSeconds);
 
         Map<String, Object> result = new HashMap<>();
-        result.put("recorded", true);
-        result.put("warningLevel", "MEDIUM");
-        result.put("message", "Focus loss event recorded");
+        result.put("recorded", outcome != FocusLossEventQueue.Outcome.DROPPED);
+        result.put("warningLevel", warningLevel.name());
+        result.put("message", switch (warningLevel) {
+            case LOW, MEDIUM -> "Focus loss event recorded";
+            case HIGH -> "Repeated focus loss detected. Your attempt has been flagged for review";
+            case CRITICAL -> "Excessive focus loss detected. Administrators have been notified";
+        });
 
         return result;
     }
-
-    private ExamResponse convertToExamResponse(Exam exam) {
-        List<ExamResponse.SectionResponse> sectionResponses = exam.getSections().stream()
-                .map(section -> ExamResponse.SectionResponse.builder()
-                        .id(section.getId())
-                        .sectionType(section.getSectionType().name())
-                        .title(section.getTitle())
-                        .passingMarks(section.getPassingMarks())
-                        .build())
-                .collect(Collectors.toList());
-
-        return ExamResponse.builder()
-                .id(exam.getId())
-                .title(exam.getTitle())
-                .description(exam.getDescription())
-                .startTime(exam.getStartTime())
-                .endTime(exam.getEndTime())
-                .durationMinutes(exam.getDurationMinutes())
-                .isActive(exam.getIsActive())
-                .sections(sectionResponses)
-                .build();
-    }
-
-    private QuestionResponse convertToQuestionResponse(Question question) {
-        List<QuestionResponse.QuestionOptionResponse> optionResponses = question.getOptions().stream()
-                .map(option -> QuestionResponse.QuestionOptionResponse.builder()
-                        .id(option.getId())
-                        .optionText(option.getOptionText())
-                        .build())
-                .collect(Collectors.toList());
-
-        return QuestionResponse.builder()
-                .id(question.getId())
-                .questionText(question.getQuestionText())
-                .questionType(question.getQuestionType().name())
-                .options(optionResponses)
-                .build();
-    }
 }
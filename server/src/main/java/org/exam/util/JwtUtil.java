@@ -2,6 +2,7 @@ package org.exam.util;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import org.exam.model.Student;
 import org.exam.model.User;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
@@ -50,6 +51,9 @@ public class JwtUtil {
         Map<String, Object> claims = new HashMap<>();
         claims.put("roles", "ROLE_" + user.getRole().name());
         claims.put("userId", user.getId());
+        if (user instanceof Student student) {
+            claims.put("studentId", student.getStudentId());
+        }
 
         return Jwts.builder()
                 .setClaims(claims)
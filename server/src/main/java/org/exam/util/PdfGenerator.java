@@ -4,43 +4,72 @@ import com.itextpdf.text.*;
 import com.itextpdf.text.pdf.PdfPCell;
 import com.itextpdf.text.pdf.PdfPTable;
 import com.itextpdf.text.pdf.PdfWriter;
+import org.exam.grading.SectionScores;
 import org.exam.model.*;
+import org.exam.repository.projection.StudentResultRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-import java.io.ByteArrayOutputStream;
-import java.io.FileOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.util.function.IntConsumer;
 
 @Component
 public class PdfGenerator {
 
+    private static final Logger log = LoggerFactory.getLogger(PdfGenerator.class);
+
     private static final Font TITLE_FONT = new Font(Font.FontFamily.HELVETICA, 18, Font.BOLD);
     private static final Font SUBTITLE_FONT = new Font(Font.FontFamily.HELVETICA, 14, Font.BOLD);
     private static final Font NORMAL_FONT = new Font(Font.FontFamily.HELVETICA, 12, Font.NORMAL);
     private static final Font HEADER_FONT = new Font(Font.FontFamily.HELVETICA, 12, Font.BOLD);
 
-    public void generateExamReport(ExamReport report, List<ExamAttempt> attempts) {
+    // Rows buffered in the results table before they are written out to the document
+    private static final int TABLE_CHUNK_ROWS = 200;
+
+    /**
+     * Render the result report of an exam to a PDF file.
+     *
+     * The document is written straight to the file and the results table is
+     * flushed every few hundred rows, so memory use does not grow with the
+     * number of attempts as long as the result rows are streamed in.
+     *
+     * @param report the report being generated, with its exam loaded
+     * @param results the result rows, one per completed attempt
+     * @param target the file to write
+     * @param progress receives the number of result rows written so far
+     * @throws IllegalStateException if the report cannot be rendered or written
+     */
+    public void generateExamReport(ExamReport report, Iterable<StudentResultRow> results, Path target,
+                                   IntConsumer progress) {
         try {
+            Files.createDirectories(target.toAbsolutePath().getParent());
+
             Document document = new Document();
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            PdfWriter.getInstance(document, outputStream);
-
-            document.open();
-            addReportHeader(document, report);
-            addExamDetails(document, report.getExam());
-            addStudentResults(document, attempts, report);
-            document.close();
-
-            // Save to file system
-            String filePath = "reports/" + report.getId() + ".pdf";
-            FileOutputStream fileOutputStream = new FileOutputStream(filePath);
-            outputStream.writeTo(fileOutputStream);
-            fileOutputStream.close();
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new RuntimeException("Failed to generate PDF report", e);
+            OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(target));
+            try {
+                PdfWriter.getInstance(document, outputStream);
+
+                document.open();
+                addReportHeader(document, report);
+                addExamDetails(document, report.getExam());
+                addStudentResults(document, results, report, progress);
+            } finally {
+                if (document.isOpen()) {
+                    document.close();
+                } else {
+                    outputStream.close();
+                }
+            }
+
+        } catch (IOException | DocumentException e) {
+            log.error("Failed to write report PDF {}", target, e);
+            throw new IllegalStateException("Failed to generate PDF report", e);
         }
     }
 
@@ -76,26 +105,34 @@ public class PdfGenerator {
         document.add(Chunk.NEWLINE);
     }
 
-    private void addStudentResults(Document document, List<ExamAttempt> attempts, ExamReport report)
-            throws DocumentException {
+    private void addStudentResults(Document document, Iterable<StudentResultRow> results, ExamReport report,
+                                   IntConsumer progress) throws DocumentException {
 
         Paragraph resultsTitle = new Paragraph("Student Results", SUBTITLE_FONT);
         document.add(resultsTitle);
 
         document.add(Chunk.NEWLINE);
 
-        // Create results table
+        // Create results table, written out in chunks as it is filled
         PdfPTable table = new PdfPTable(8); // 8 columns
         table.setWidthPercentage(100);
+        table.setComplete(false);
 
-        // Add table headers
+        // Add table headers, repeated on every page
         addTableHeader(table);
+        table.setHeaderRows(1);
 
         // Add data rows
-        for (ExamAttempt attempt : attempts) {
-            addStudentResultRow(table, attempt, report);
+        int rows = 0;
+        for (StudentResultRow result : results) {
+            addStudentResultRow(table, result, report);
+            progress.accept(++rows);
+            if (rows % TABLE_CHUNK_ROWS == 0) {
+                document.add(table);
+            }
         }
 
+        table.setComplete(true);
         document.add(table);
         document.add(Chunk.NEWLINE);
 
@@ -125,28 +162,21 @@ public class PdfGenerator {
         }
     }
 
-    private void addStudentResultRow(PdfPTable table, ExamAttempt attempt, ExamReport report) {
-        Student student = attempt.getStudent();
-
-        // In a real implementation, we would calculate these scores from the answers
-        int aptitudeScore = 15; // Example score
-        int reasoningScore = 12; // Example score
-        int codingScore = 14; // Example score
+    private void addStudentResultRow(PdfPTable table, StudentResultRow result, ExamReport report) {
+        // Section totals are maintained on the attempt as its answers are graded
+        SectionScores scores = result.scores();
 
         // Determine if passed
-        boolean passedAptitude = aptitudeScore >= report.getAptitudePassingMarks();
-        boolean passedReasoning = reasoningScore >= report.getReasoningPassingMarks();
-        boolean passedCoding = codingScore >= report.getCodingPassingMarks();
-        boolean passed = passedAptitude && passedReasoning && passedCoding;
+        boolean passed = scores.passes(report);
 
         // Add cells
-        table.addCell(student.getStudentId());
-        table.addCell(student.getFullName());
-        table.addCell(student.getBranch());
-        table.addCell(student.getAcademicYear());
-        table.addCell(String.valueOf(aptitudeScore));
-        table.addCell(String.valueOf(reasoningScore));
-        table.addCell(String.valueOf(codingScore));
+        table.addCell(result.studentId());
+        table.addCell(result.fullName());
+        table.addCell(result.branch());
+        table.addCell(result.academicYear());
+        table.addCell(scores.aptitude().stripTrailingZeros().toPlainString());
+        table.addCell(scores.reasoning().stripTrailingZeros().toPlainString());
+        table.addCell(scores.coding().stripTrailingZeros().toPlainString());
 
         PdfPCell resultCell = new PdfPCell(new Phrase(passed ? "PASS" : "FAIL", NORMAL_FONT));
         resultCell.setBackgroundColor(passed ? new BaseColor(200, 255, 200) : new BaseColor(255, 200, 200));
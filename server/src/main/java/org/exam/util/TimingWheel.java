@@ -0,0 +1,124 @@
+package org.exam.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * Hashed timing wheel for long ids with a millisecond deadline.
+ *
+ * Each bucket holds a doubly linked list of entries, and an index from id to entry
+ * makes both {@link #schedule} and {@link #cancel} O(1). Deadlines further away than
+ * one revolution of the wheel carry a remaining-rounds count, as in Varghese and
+ * Lauck's scheme 6. An entry never fires before its deadline; it may fire up to one
+ * tick late.
+ *
+ * Not thread-safe: callers synchronize access.
+ */
+public class TimingWheel {
+
+    private final long startMillis;
+    private final long tickMillis;
+    private final Entry[] buckets;
+    private final int mask;
+    private final Map<Long, Entry> index = new HashMap<>();
+
+    // The next tick to be processed
+    private long currentTick;
+
+    /**
+     * @param tickMillis duration of one tick
+     * @param wheelSize  number of buckets, rounded up to a power of two
+     * @param startMillis time of tick zero
+     */
+    public TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.startMillis = startMillis;
+        this.tickMillis = tickMillis;
+        this.buckets = new Entry[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Schedule an id, replacing any earlier deadline of the same id. A deadline in the
+     * past fires on the next call to {@link #advance}.
+     */
+    public void schedule(long id, long deadlineMillis) {
+        cancel(id);
+
+        long tick = Math.max(currentTick, Math.ceilDiv(deadlineMillis - startMillis, tickMillis));
+        Entry entry = new Entry(id, (tick - currentTick) / buckets.length);
+        entry.bucket = (int) (tick & mask);
+        entry.next = buckets[entry.bucket];
+        if (entry.next != null) {
+            entry.next.prev = entry;
+        }
+        buckets[entry.bucket] = entry;
+        index.put(id, entry);
+    }
+
+    /**
+     * @return true if the id was scheduled
+     */
+    public boolean cancel(long id) {
+        Entry entry = index.remove(id);
+        if (entry == null) {
+            return false;
+        }
+        unlink(entry);
+        return true;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Process every tick up to the given time, handing each expired id to the consumer
+     */
+    public void advance(long nowMillis, LongConsumer expired) {
+        long targetTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+
+        while (currentTick <= targetTick) {
+            Entry entry = buckets[(int) (currentTick & mask)];
+            while (entry != null) {
+                Entry next = entry.next;
+                if (entry.rounds <= 0) {
+                    index.remove(entry.id);
+                    unlink(entry);
+                    expired.accept(entry.id);
+                } else {
+                    entry.rounds--;
+                }
+                entry = next;
+            }
+            currentTick++;
+        }
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            buckets[entry.bucket] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+    }
+
+    private static final class Entry {
+        private final long id;
+        private long rounds;
+        private int bucket;
+        private Entry prev;
+        private Entry next;
+
+        private Entry(long id, long rounds) {
+            this.id = id;
+            this.rounds = rounds;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package org.exam.grading;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.exam.cache.ExamSnapshot;
+import org.exam.model.Question;
+import org.exam.model.Section;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class GradingServiceTest {
+
+    private static final long EXAM_ID = 1;
+    private static final int ATTEMPTS = 10_000;
+    private static final int QUESTIONS = 100;
+    private static final int OPTIONS = 4;
+    private static final int BATCH_SIZE = 200;
+
+    private final FakeAnswerRows answerRows = new FakeAnswerRows();
+    private final FakeAnswerUpdates answerUpdates = new FakeAnswerUpdates();
+
+    private GradingService gradingService;
+
+    @BeforeEach
+    void setUp() {
+        AnswerKey answerKey = AnswerKey.compile(snapshot());
+        AnswerKeyCache answerKeyCache = new AnswerKeyCache() {
+            @Override
+            public AnswerKey get(Long examId) {
+                return answerKey;
+            }
+        };
+
+        gradingService = new GradingService();
+        ReflectionTestUtils.setField(gradingService, "namedParameterJdbcTemplate", answerRows);
+        ReflectionTestUtils.setField(gradingService, "jdbcTemplate", answerUpdates);
+        ReflectionTestUtils.setField(gradingService, "transactionTemplate", new TransactionTemplate() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) throws TransactionException {
+                return action.doInTransaction(null);
+            }
+        });
+        ReflectionTestUtils.setField(gradingService, "answerKeyCache", answerKeyCache);
+        ReflectionTestUtils.setField(gradingService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(gradingService, "eventPublisher", (ApplicationEventPublisher) event -> { });
+        ReflectionTestUtils.setField(gradingService, "batchSize", BATCH_SIZE);
+        gradingService.registerMetrics();
+    }
+
+    @Test
+    void gradesTenThousandAttemptsOfHundredQuestions() {
+        List<Long> attemptIds = LongStream.rangeClosed(1, ATTEMPTS).boxed().toList();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(20), () -> gradingService.gradeAttempts(attemptIds));
+
+        assertThat(answerUpdates.answers).isEqualTo(ATTEMPTS * QUESTIONS);
+        // Every other answer selects the correct option
+        assertThat(answerUpdates.correct).isEqualTo(ATTEMPTS * QUESTIONS / 2);
+        assertThat(answerUpdates.marks).isEqualTo(ATTEMPTS * QUESTIONS / 2 * 2);
+
+        // One read, one answer batch and one totals update per batch of attempts, whatever its size
+        int batches = ATTEMPTS / BATCH_SIZE;
+        assertThat(answerRows.queries.get()).isEqualTo(batches);
+        assertThat(answerUpdates.batches).isEqualTo(batches);
+        assertThat(answerRows.totalUpdates.get()).isEqualTo(batches);
+    }
+
+    @Test
+    void optionOfAnotherQuestionIsIncorrect() {
+        // Question 2 gets the correct option of question 1
+        answerRows.selectOptionOf = questionId -> questionId == 2 ? 1 : questionId;
+
+        gradingService.gradeAttempts(List.of(2L));
+
+        assertThat(answerUpdates.answers).isEqualTo(QUESTIONS);
+        assertThat(answerUpdates.correct).isEqualTo(QUESTIONS / 2 - 1);
+    }
+
+    private static ExamSnapshot snapshot() {
+        List<ExamSnapshot.SectionSnapshot> sections = new ArrayList<>();
+        Section.SectionType[] types = Section.SectionType.values();
+        for (int s = 0; s < types.length; s++) {
+            List<ExamSnapshot.QuestionSnapshot> questions = new ArrayList<>();
+            for (long questionId = s + 1; questionId <= QUESTIONS; questionId += types.length) {
+                List<ExamSnapshot.OptionSnapshot> options = new ArrayList<>();
+                for (int option = 0; option < OPTIONS; option++) {
+                    options.add(new ExamSnapshot.OptionSnapshot(optionId(questionId, option), "Option " + option, option == 0));
+                }
+                questions.add(new ExamSnapshot.QuestionSnapshot(questionId, Question.QuestionType.MULTIPLE_CHOICE_SINGLE,
+                        "Question " + questionId, 2, options));
+            }
+            sections.add(new ExamSnapshot.SectionSnapshot((long) s + 1, types[s], types[s].name(), 0, questions, List.of()));
+        }
+        return new ExamSnapshot(EXAM_ID, "Exam", 60, sections);
+    }
+
+    private static long optionId(long questionId, int option) {
+        return questionId * 10 + option;
+    }
+
+    /**
+     * Serves the answer rows of the requested attempts, one selected option per answer
+     */
+    private static final class FakeAnswerRows extends NamedParameterJdbcTemplate {
+        private final AtomicInteger queries = new AtomicInteger();
+        private final AtomicInteger totalUpdates = new AtomicInteger();
+        private LongUnaryOperator selectOptionOf = questionId -> questionId;
+
+        private FakeAnswerRows() {
+            super(new JdbcTemplate());
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void query(String sql, Map<String, ?> paramMap, RowCallbackHandler rch) {
+            queries.incrementAndGet();
+            long[] row = new long[3];
+            ResultSet rs = (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ResultSet.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "getLong" -> switch ((String) args[0]) {
+                            case "answer_id" -> row[0];
+                            case "exam_id" -> EXAM_ID;
+                            case "question_id" -> row[1];
+                            default -> row[2];
+                        };
+                        case "wasNull" -> false;
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+
+            try {
+                for (Long attemptId : (List<Long>) paramMap.get("attemptIds")) {
+                    for (long questionId = 1; questionId <= QUESTIONS; questionId++) {
+                        row[0] = attemptId * QUESTIONS + questionId;
+                        row[1] = questionId;
+                        int option = (attemptId + questionId) % 2 == 0 ? 0 : 1;
+                        row[2] = optionId(selectOptionOf.applyAsLong(questionId), option);
+                        rch.processRow(rs);
+                    }
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public int update(String sql, Map<String, ?> paramMap) {
+            totalUpdates.incrementAndGet();
+            return 0;
+        }
+    }
+
+    private static final class FakeAnswerUpdates extends JdbcTemplate {
+        private int batches;
+        private int answers;
+        private int correct;
+        private int marks;
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            batches++;
+            for (Object[] args : batchArgs) {
+                answers++;
+                if ((Boolean) args[0]) {
+                    correct++;
+                }
+                marks += ((BigDecimal) args[1]).intValue();
+            }
+            return new int[batchArgs.size()];
+        }
+    }
+}
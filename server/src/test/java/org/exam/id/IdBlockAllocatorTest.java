@@ -0,0 +1,120 @@
+package org.exam.id;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdBlockAllocatorTest {
+
+    private static final int BLOCK_SIZE = 1000;
+
+    private final FakeIdBlocks idBlocks = new FakeIdBlocks();
+
+    private final IdBlockAllocator allocator = new IdBlockAllocator();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(allocator, "blockSize", BLOCK_SIZE);
+        ReflectionTestUtils.setField(allocator, "jdbcTemplate", idBlocks);
+        ReflectionTestUtils.setField(allocator, "reserveTransaction", new TransactionTemplate() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) throws TransactionException {
+                return action.doInTransaction(null);
+            }
+        });
+    }
+
+    @Test
+    void firstBlockStartsAfterExistingRows() {
+        idBlocks.maxIds.put("questions", 41L);
+
+        assertThat(allocator.next("questions")).isEqualTo(42);
+        assertThat(allocator.next("questions", 3)).containsExactly(43, 44, 45);
+    }
+
+    @Test
+    void concurrentWritersGetUniqueIdsWithOneReservationPerBlock() throws Exception {
+        int threads = 16;
+        int batchesPerThread = 2_000;
+        int batchSize = 50;
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < batchesPerThread; i++) {
+                        long[] batch = allocator.next("student_answers", batchSize);
+                        for (int j = 1; j < batch.length; j++) {
+                            assertThat(batch[j]).isGreaterThan(batch[j - 1]);
+                        }
+                        for (long id : batch) {
+                            ids.add(id);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        int total = threads * batchesPerThread * batchSize;
+        assertThat(ids).hasSize(total);
+        // One round trip per block rather than one per insert or per batch
+        assertThat(idBlocks.reservations.get()).isEqualTo(total / BLOCK_SIZE);
+    }
+
+    /**
+     * An id_blocks table in memory; the allocator serializes reservations per table
+     */
+    private static final class FakeIdBlocks extends JdbcTemplate {
+        private final Map<String, Long> nextValues = new ConcurrentHashMap<>();
+        private final Map<String, Long> maxIds = new ConcurrentHashMap<>();
+        private final AtomicInteger reservations = new AtomicInteger();
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+            reservations.incrementAndGet();
+            Long next = nextValues.get((String) args[0]);
+            return next == null ? List.of() : List.of((T) next);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T queryForObject(String sql, Class<T> requiredType) {
+            String table = sql.substring(sql.lastIndexOf(' ') + 1);
+            return (T) maxIds.get(table);
+        }
+
+        @Override
+        public int update(String sql, Object... args) {
+            if (sql.startsWith("INSERT")) {
+                nextValues.put((String) args[0], (Long) args[1]);
+            } else {
+                nextValues.put((String) args[1], (Long) args[0]);
+            }
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package org.exam.id;
+
+import org.exam.model.Exam;
+import org.exam.model.ExamAttempt;
+import org.exam.model.Student;
+import org.exam.model.User;
+import org.exam.repository.ExamAttemptRepository;
+import org.exam.repository.ExamRepository;
+import org.exam.repository.StudentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Insert throughput of focus_loss_events rows with IDENTITY ids, one row at a time
+ * (each insert has to return its key before the next can be sent), against ids
+ * taken from reserved blocks and written in JDBC batches, as FocusLossEventQueue
+ * writes them.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(IdBlockAllocator.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdBlockInsertBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(IdBlockInsertBenchmarkTest.class);
+
+    private static final int ROWS = 20_000;
+    private static final int WARM_UP_ROWS = 2_000;
+    private static final int BATCH_SIZE = 1_000;
+
+    private static final String IDENTITY_TABLE_SQL =
+            "CREATE TABLE IF NOT EXISTS focus_loss_events_identity (" +
+            "id BIGINT AUTO_INCREMENT PRIMARY KEY, attempt_id BIGINT NOT NULL, event_time TIMESTAMP NOT NULL, " +
+            "event_type VARCHAR(255) NOT NULL, duration_seconds INT, event_count INT)";
+
+    private static final String INSERT_IDENTITY_SQL =
+            "INSERT INTO focus_loss_events_identity (attempt_id, event_time, event_type, duration_seconds, event_count) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_BLOCK_SQL =
+            "INSERT INTO focus_loss_events (id, attempt_id, event_time, event_type, duration_seconds, event_count) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private IdBlockAllocator idBlockAllocator;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private ExamAttemptRepository examAttemptRepository;
+
+    private TransactionTemplate transactionTemplate;
+
+    private long attemptId;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        jdbcTemplate.execute(IDENTITY_TABLE_SQL);
+
+        Student student = new Student();
+        student.setEmail("bench-" + System.nanoTime() + "@example.com");
+        student.setFullName("Benchmark Student");
+        student.setRole(User.Role.STUDENT);
+        student.setStudentId("BENCH-" + System.nanoTime());
+        student.setBranch("CSE");
+        student.setAcademicYear("2026");
+        student = studentRepository.save(student);
+
+        Exam exam = new Exam();
+        exam.setTitle("Benchmark Exam");
+        exam.setCreatedBy(student);
+        exam = examRepository.save(exam);
+
+        ExamAttempt attempt = new ExamAttempt();
+        attempt.setExam(exam);
+        attempt.setStudent(student);
+        attempt.setStartTime(LocalDateTime.now());
+        attemptId = examAttemptRepository.save(attempt).getId();
+    }
+
+    @Test
+    void blockIdsWithBatchingOutrunIdentityInserts() {
+        insertWithIdentity(WARM_UP_ROWS);
+        insertWithBlockIds(WARM_UP_ROWS);
+
+        long identityNanos = insertWithIdentity(ROWS);
+        long blockNanos = insertWithBlockIds(ROWS);
+
+        double identityRate = ROWS * 1e9 / identityNanos;
+        double blockRate = ROWS * 1e9 / blockNanos;
+        log.info("Inserted {} focus_loss_events rows: IDENTITY one at a time {} rows/s, block ids in batches of {} {} rows/s",
+                ROWS, Math.round(identityRate), BATCH_SIZE, Math.round(blockRate));
+
+        Integer blockRows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM focus_loss_events WHERE attempt_id = ?", Integer.class, attemptId);
+        Integer distinctIds = jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT id) FROM focus_loss_events WHERE attempt_id = ?", Integer.class, attemptId);
+        assertThat(blockRows).isEqualTo(WARM_UP_ROWS + ROWS);
+        assertThat(distinctIds).isEqualTo(blockRows);
+        assertThat(blockRate).isGreaterThan(identityRate);
+    }
+
+    private long insertWithIdentity(int rows) {
+        long started = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            for (int i = 0; i < rows; i++) {
+                GeneratedKeyHolder key = new GeneratedKeyHolder();
+                jdbcTemplate.update(connection -> {
+                    PreparedStatement ps = connection.prepareStatement(INSERT_IDENTITY_SQL, Statement.RETURN_GENERATED_KEYS);
+                    ps.setLong(1, attemptId);
+                    ps.setTimestamp(2, now);
+                    ps.setString(3, "TAB_SWITCH");
+                    ps.setInt(4, 1);
+                    ps.setInt(5, 1);
+                    return ps;
+                }, key);
+                assertThat(key.getKey()).isNotNull();
+            }
+        });
+        return System.nanoTime() - started;
+    }
+
+    private long insertWithBlockIds(int rows) {
+        long started = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            for (int from = 0; from < rows; from += BATCH_SIZE) {
+                int size = Math.min(BATCH_SIZE, rows - from);
+                long[] ids = idBlockAllocator.next("focus_loss_events", size);
+                List<Object[]> batch = new ArrayList<>(size);
+                for (long id : ids) {
+                    batch.add(new Object[]{id, attemptId, now, "TAB_SWITCH", 1, 1});
+                }
+                jdbcTemplate.batchUpdate(INSERT_BLOCK_SQL, batch);
+            }
+        });
+        return System.nanoTime() - started;
+    }
+}
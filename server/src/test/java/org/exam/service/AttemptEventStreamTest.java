@@ -0,0 +1,124 @@
+package org.exam.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.exam.cache.AttemptSession;
+import org.exam.cache.AttemptSessionRegistry;
+import org.exam.event.AttemptsCompletedEvent;
+import org.exam.model.Section;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AttemptEventStreamTest {
+
+    private static final int CONNECTIONS = 10_000;
+
+    // An open stream is its emitter, a subscriber and a map entry; under 1 KB when measured
+    private static final long MAX_BYTES_PER_STREAM = 2 * 1024;
+
+    private final AttemptSessionRegistry attemptSessionRegistry = mock(AttemptSessionRegistry.class);
+
+    // Sends are parked here instead of run, as if every client had stopped reading
+    private final List<Runnable> parkedSends = new ArrayList<>();
+
+    private AttemptEventStream stream;
+
+    @BeforeEach
+    void setUp() {
+        stream = new AttemptEventStream();
+        ReflectionTestUtils.setField(stream, "attemptSessionRegistry", attemptSessionRegistry);
+        ReflectionTestUtils.setField(stream, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(stream, "streamSendExecutor", (TaskExecutor) parkedSends::add);
+        ReflectionTestUtils.setField(stream, "timeSyncSeconds", 30);
+        ReflectionTestUtils.setField(stream, "graceSeconds", 60L);
+        ReflectionTestUtils.setField(stream, "sendTimeoutMs", 60_000L);
+        stream.registerMetrics();
+    }
+
+    @Test
+    void tenThousandStreamsWithBlockedSendsDoNotHoldUpTheTick() {
+        long deadline = System.currentTimeMillis() + 3_600_000;
+        for (long attemptId = 1; attemptId <= CONNECTIONS; attemptId++) {
+            stream.subscribe(session(attemptId, attemptId % 20, deadline));
+        }
+        assertThat(stream.getSubscriberCount()).isEqualTo(CONNECTIONS);
+        assertThat(parkedSends).hasSize(CONNECTIONS);
+
+        long started = System.nanoTime();
+        stream.tick();
+        long tickMillis = (System.nanoTime() - started) / 1_000_000;
+
+        // Nothing new is queued behind a send in flight, and the tick never waits on one
+        assertThat(parkedSends).hasSize(CONNECTIONS);
+        assertThat(tickMillis).isLessThan(1_000);
+        assertThat(stream.getSubscriberCount()).isEqualTo(CONNECTIONS);
+
+        ReflectionTestUtils.setField(stream, "sendTimeoutMs", -1L);
+        stream.tick();
+        assertThat(stream.getSubscriberCount()).isZero();
+
+        // The parked sends finish later without bringing the subscribers back
+        parkedSends.forEach(Runnable::run);
+        assertThat(stream.getSubscriberCount()).isZero();
+    }
+
+    @Test
+    void tenThousandIdleStreamsRetainBoundedHeap() {
+        ReflectionTestUtils.setField(stream, "streamSendExecutor", (TaskExecutor) Runnable::run);
+        long deadline = System.currentTimeMillis() + 3_600_000;
+        List<AttemptSession> sessions = new ArrayList<>();
+        for (long attemptId = 1; attemptId <= CONNECTIONS; attemptId++) {
+            sessions.add(session(attemptId, attemptId % 20, deadline));
+        }
+
+        long before = usedHeapAfterGc();
+        List<SseEmitter> emitters = new ArrayList<>();
+        for (AttemptSession session : sessions) {
+            emitters.add(stream.subscribe(session));
+        }
+        stream.tick();
+        long after = usedHeapAfterGc();
+
+        assertThat(stream.getSubscriberCount()).isEqualTo(CONNECTIONS);
+        assertThat(emitters).hasSize(CONNECTIONS);
+        assertThat((after - before) / CONNECTIONS).isLessThan(MAX_BYTES_PER_STREAM);
+    }
+
+    @Test
+    void completionIsSentOnTheSendExecutor() {
+        AttemptSession session = session(1, 1, System.currentTimeMillis() + 3_600_000);
+        when(attemptSessionRegistry.getIfPresent(1L)).thenReturn(session);
+        stream.subscribe(session);
+        parkedSends.remove(0).run();
+
+        stream.onAttemptsCompleted(new AttemptsCompletedEvent(List.of(1L)));
+
+        assertThat(parkedSends).hasSize(1);
+        assertThat(stream.getSubscriberCount()).isEqualTo(1);
+
+        parkedSends.remove(0).run();
+        assertThat(stream.getSubscriberCount()).isZero();
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static AttemptSession session(long attemptId, long examId, long deadline) {
+        return new AttemptSession(attemptId, attemptId, examId, deadline, false, Section.SectionType.APTITUDE);
+    }
+}
@@ -0,0 +1,197 @@
+package org.exam.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.exam.cache.ActiveExamCatalog;
+import org.exam.cache.ExamContentCache;
+import org.exam.dto.response.ExamResponse;
+import org.exam.model.Exam;
+import org.exam.model.ExamAttempt;
+import org.exam.model.Section;
+import org.exam.model.Student;
+import org.exam.model.User;
+import org.exam.repository.ExamAttemptRepository;
+import org.exam.repository.projection.PastExamView;
+import org.exam.security.CurrentUser;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The exam listings must cost a fixed number of SQL statements whatever the number
+ * of exams, sections and attempts, counted by Hibernate on an embedded database.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({ExamService.class, ExamContentCache.class, ExamResponseMapper.class, ActiveExamCatalog.class})
+class ExamListingQueryCountTest {
+
+    private static final int EXAMS = 30;
+    private static final int ACTIVE_EXAMS = 10;
+    private static final int COMPLETED_ATTEMPTS = 25;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ExamService examService;
+
+    @Autowired
+    private ActiveExamCatalog activeExamCatalog;
+
+    @Autowired
+    private ExamAttemptRepository examAttemptRepository;
+
+    private StudentService studentService;
+
+    private Statistics statistics;
+
+    private Long examId;
+
+    @BeforeEach
+    void setUp() {
+        User admin = new User();
+        admin.setEmail("admin@example.com");
+        admin.setFullName("Admin");
+        admin.setRole(User.Role.ADMIN);
+        entityManager.persist(admin);
+
+        Student student = new Student();
+        student.setEmail("student@example.com");
+        student.setFullName("Student");
+        student.setRole(User.Role.STUDENT);
+        student.setStudentId("S-1");
+        student.setBranch("CSE");
+        student.setAcademicYear("2026");
+        entityManager.persist(student);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < EXAMS; i++) {
+            Exam exam = exam(admin, i < ACTIVE_EXAMS, now.plusDays(i + 1));
+            entityManager.persist(exam);
+            examId = exam.getId();
+
+            if (i < COMPLETED_ATTEMPTS) {
+                ExamAttempt attempt = new ExamAttempt();
+                attempt.setExam(exam);
+                attempt.setStudent(student);
+                attempt.setStartTime(now.minusHours(i + 2));
+                attempt.setEndTime(now.minusHours(i + 1));
+                attempt.setIsCompleted(true);
+                attempt.setAptitudeScore(BigDecimal.TEN);
+                entityManager.persist(attempt);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Long studentId = student.getId();
+        studentService = new StudentService();
+        ReflectionTestUtils.setField(studentService, "currentUser", new CurrentUser() {
+            @Override
+            public Long studentId() {
+                return studentId;
+            }
+        });
+        ReflectionTestUtils.setField(studentService, "activeExamCatalog", activeExamCatalog);
+        ReflectionTestUtils.setField(studentService, "examAttemptRepository", examAttemptRepository);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void pageOfExamsTakesThreeStatements() {
+        Map<String, Object> result = examService.getAllExams(0, 20);
+
+        List<ExamResponse> exams = (List<ExamResponse>) result.get("exams");
+        assertThat(exams).hasSize(20);
+        assertThat(exams).allSatisfy(exam -> assertThat(exam.getSections()).hasSize(3));
+        assertThat(result.get("totalExams")).isEqualTo((long) EXAMS);
+        // Page of ids, its count, and the exams of the page with their sections
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void emptyPageSkipsTheFetch() {
+        examService.getAllExams(5, 20);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void examByIdTakesOneStatement() {
+        ExamResponse exam = examService.getExamById(examId);
+
+        assertThat(exam.getSections()).hasSize(3);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void studentDashboardTakesOneStatementOnceTheCatalogIsLoaded() {
+        Map<String, Object> first = studentService.getAvailableExams();
+
+        assertThat((List<ExamResponse>) first.get("upcoming")).hasSize(ACTIVE_EXAMS);
+        assertThat((List<PastExamView>) first.get("past")).hasSize(20);
+        // Loading the catalog, then the past exams
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+
+        statistics.clear();
+        Map<String, Object> second = studentService.getAvailableExams();
+
+        assertThat((List<ExamResponse>) second.get("upcoming")).hasSize(ACTIVE_EXAMS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void everyPastExamsPageTakesOneStatement() {
+        Map<String, Object> first = studentService.getPastExams(null, null, 10);
+        assertThat((List<PastExamView>) first.get("exams")).hasSize(10);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics.clear();
+        Map<String, Object> second = studentService.getPastExams(
+                (LocalDateTime) first.get("nextBeforeEndTime"), (Long) first.get("nextBeforeAttemptId"), 10);
+        assertThat((List<PastExamView>) second.get("exams")).hasSize(10);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private static Exam exam(User createdBy, boolean active, LocalDateTime endTime) {
+        Exam exam = new Exam();
+        exam.setTitle("Exam");
+        exam.setCreatedBy(createdBy);
+        exam.setIsActive(active);
+        exam.setStartTime(endTime.minusHours(3));
+        exam.setEndTime(endTime);
+        for (Section.SectionType type : Section.SectionType.values()) {
+            Section section = new Section();
+            section.setExam(exam);
+            section.setSectionType(type);
+            section.setTitle(type.name());
+            section.setPassingMarks(5);
+            exam.getSections().add(section);
+        }
+        return exam;
+    }
+}
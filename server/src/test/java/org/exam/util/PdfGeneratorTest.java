@@ -0,0 +1,88 @@
+package org.exam.util;
+
+import org.exam.model.Exam;
+import org.exam.model.ExamReport;
+import org.exam.repository.projection.StudentResultRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PdfGeneratorTest {
+
+    private static final int STUDENTS = 40_000;
+    private static final int SAMPLE_EVERY = 5_000;
+
+    // Far below what 40k buffered table rows would take (several hundred MB)
+    private static final long MAX_HEAP_GROWTH_BYTES = 32L * 1024 * 1024;
+
+    private final PdfGenerator pdfGenerator = new PdfGenerator();
+
+    @Test
+    void heapStaysFlatWhileRenderingALargeCohort(@TempDir Path directory) throws IOException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long[] baseline = new long[1];
+        long[] peakGrowth = new long[1];
+
+        Path target = directory.resolve("report.pdf");
+        pdfGenerator.generateExamReport(report(), this::rows, target, rows -> {
+            if (rows % SAMPLE_EVERY != 0) {
+                return;
+            }
+            System.gc();
+            long used = memory.getHeapMemoryUsage().getUsed();
+            if (rows == SAMPLE_EVERY) {
+                baseline[0] = used;
+            } else {
+                peakGrowth[0] = Math.max(peakGrowth[0], used - baseline[0]);
+            }
+        });
+
+        assertThat(Files.size(target)).isPositive();
+        assertThat(peakGrowth[0]).isLessThan(MAX_HEAP_GROWTH_BYTES);
+    }
+
+    /**
+     * Result rows made on demand, as the paged report query feeds them
+     */
+    private Iterator<StudentResultRow> rows() {
+        return new Iterator<>() {
+            private long next = 1;
+
+            @Override
+            public boolean hasNext() {
+                return next <= STUDENTS;
+            }
+
+            @Override
+            public StudentResultRow next() {
+                long id = next++;
+                BigDecimal score = BigDecimal.valueOf(id % 50);
+                return new StudentResultRow(id, "S" + id, "Student " + id, "CSE", "2026",
+                        score, score, score);
+            }
+        };
+    }
+
+    private static ExamReport report() {
+        Exam exam = new Exam();
+        exam.setTitle("Placement Test");
+        exam.setDescription("Aptitude, reasoning and coding");
+
+        ExamReport report = new ExamReport();
+        report.setExam(exam);
+        report.setCollege("Test College");
+        report.setAptitudePassingMarks(20);
+        report.setReasoningPassingMarks(20);
+        report.setCodingPassingMarks(20);
+        return report;
+    }
+}